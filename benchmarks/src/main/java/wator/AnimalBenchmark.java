@@ -0,0 +1,116 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// AnimalBenchmark
+// The parts of a WatorEngine chronon, one animal at a time.
+//
+// FishTic and SharkTic walk the list of living animals just the way
+// Chronon does, but only give a turn to the next animal of the kind being
+// measured.  So the world keeps changing under them, as it does in a real
+// run, and what is measured is the average cost of a turn.
+//
+// The choices benchmarks don't change anything.  They ask the same
+// animals, over and over, where they could go.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimalBenchmark
+{
+    @Param({"256"})
+    public int size;
+
+    @Param({"0.05", "0.3"})
+    public double density;
+
+    private WatorEngine itsWorld;
+    private int itsNext;          // the next animal in line for a Tic.
+    private Animal itsSharks[];   // a still life of the sharks,
+    private Animal itsFish[];     // and of the fish.
+    private int itsChoice = 0;
+
+    @Setup(Level.Iteration)
+    public void Setup()
+    {
+        itsWorld = (WatorEngine)Worlds.Settled("engine", size, density);
+        itsNext = 0;
+
+        List<Animal> sharks = new ArrayList<Animal>();
+        List<Animal> fish = new ArrayList<Animal>();
+        for (int i=0; i<itsWorld.itsAnimals.Size(); i++)
+        {
+            Animal a = itsWorld.itsAnimals.Get(i);
+            if (a instanceof Shark)
+                sharks.add(a);
+            else if (a instanceof Fish)
+                fish.add(a);
+        }
+        itsSharks = sharks.toArray(new Animal[0]);
+        itsFish = fish.toArray(new Animal[0]);
+    }
+
+    // The next living animal of the given kind.  When the list runs out,
+    // a new chronon begins.  If there are none of that kind left at all,
+    // the world starts over.
+    private Animal Next(Class<?> kind)
+    {
+        for (int laps=0; ; )
+        {
+            if (itsNext >= itsWorld.itsAnimals.Size())
+            {
+                itsWorld.itsTick++;
+                itsNext = 0;
+                if (++laps > 1)
+                {
+                    Setup();
+                    laps = 0;
+                }
+                continue;
+            }
+            Animal a = itsWorld.itsAnimals.Get(itsNext++);
+            if (kind.isInstance(a))
+                return a;
+        }
+    }
+
+    @Benchmark
+    public long FishTic()
+    {
+        Next(Fish.class).Tic(itsWorld.itsTick, itsWorld);
+        return itsWorld.itsTick;
+    }
+
+    @Benchmark
+    public long SharkTic()
+    {
+        Next(Shark.class).Tic(itsWorld.itsTick, itsWorld);
+        return itsWorld.itsTick;
+    }
+
+    @Benchmark
+    public int SharkChoices()
+    {
+        itsChoice = (itsChoice + 1) % itsSharks.length;
+        return itsSharks[itsChoice].GetCellChoices(itsWorld);
+    }
+
+    @Benchmark
+    public int FishChoices()
+    {
+        itsChoice = (itsChoice + 1) % itsFish.length;
+        return itsFish[itsChoice].GetCellChoices(itsWorld);
+    }
+}
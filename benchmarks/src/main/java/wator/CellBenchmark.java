@@ -0,0 +1,62 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// CellBenchmark
+// Finding cells: Normalize, with coordinates both in and just off the
+// edges of the world, and a step in each of the eight directions.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellBenchmark
+{
+    private static final int POINTS = 1024; // a power of two.
+
+    @Param({"256"})
+    public int size;
+
+    private WatorEngine itsWorld;
+    private int itsX[] = new int[POINTS];
+    private int itsY[] = new int[POINTS];
+    private Cell itsCells[] = new Cell[POINTS];
+    private int itsPoint = 0;
+
+    @Setup
+    public void Setup()
+    {
+        itsWorld = new WatorEngine(size, size);
+        WatorRandom r = new WatorRandom(Worlds.SEED);
+        for (int p=0; p<POINTS; p++)
+        {
+            itsX[p] = r.NextInt(size+2) - 1;
+            itsY[p] = r.NextInt(size+2) - 1;
+            itsCells[p] = Cell.Normalize(itsX[p], itsY[p], itsWorld);
+        }
+    }
+
+    @Benchmark
+    public Cell Normalize()
+    {
+        int p = itsPoint++ & (POINTS-1);
+        return Cell.Normalize(itsX[p], itsY[p], itsWorld);
+    }
+
+    @Benchmark
+    public Cell Step()
+    {
+        int p = itsPoint++ & (POINTS-1);
+        return itsCells[p].Step(p & 7, itsWorld);
+    }
+}
@@ -0,0 +1,49 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// ChrononBenchmark
+// One whole turn of the world: every animal's Tic and the mutations.  This
+// is the number that matters in the end; the other benchmarks are here to
+// explain it.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChrononBenchmark
+{
+    @Param({"engine", "grid", "ocean", "sparse"})
+    public String world;
+
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"0.05", "0.3"})
+    public double density;
+
+    private WatorWorld itsWorld;
+
+    @Setup(Level.Iteration)
+    public void Setup()
+    {
+        itsWorld = Worlds.Settled(world, size, density);
+    }
+
+    @Benchmark
+    public long Chronon()
+    {
+        itsWorld.Chronon();
+        return itsWorld.GetTick();
+    }
+}
@@ -0,0 +1,66 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// MutationBenchmark
+// The mutations.  Every mutation that succeeds changes the world, and
+// would sooner or later fill it with fish, or sharks.  So each
+// measurement is a fixed batch of mutations on a freshly populated world,
+// timed as a single shot; the score is for the whole batch.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = MutationBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = MutationBenchmark.BATCH)
+@Fork(1)
+public class MutationBenchmark
+{
+    static final int BATCH = 10000;
+
+    @Param({"engine", "grid"})
+    public String world;
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"0.3"})
+    public double density;
+
+    private WatorEngine itsEngine;
+    private WatorGrid itsGrid;
+
+    @Setup(Level.Iteration)
+    public void Setup()
+    {
+        WatorWorld w = Worlds.Make(world, size, density);
+        itsEngine = w instanceof WatorEngine ? (WatorEngine)w : null;
+        itsGrid = w instanceof WatorGrid ? (WatorGrid)w : null;
+    }
+
+    @Benchmark
+    public void MutateAlgae()
+    {
+        if (itsEngine != null)
+            itsEngine.MutateAlgae();
+        else
+            itsGrid.MutateAlgae();
+    }
+
+    @Benchmark
+    public void MutateFish()
+    {
+        if (itsEngine != null)
+            itsEngine.MutateFish();
+        else
+            itsGrid.MutateFish();
+    }
+}
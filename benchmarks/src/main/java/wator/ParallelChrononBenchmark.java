@@ -0,0 +1,74 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// ParallelChrononBenchmark
+// A whole chronon of a big WatorGrid, stepped in each of its parallel
+// modes on a given number of threads; the numbers to divide by the one
+// thread numbers, to see how each mode scales.  A grid uses no more
+// threads than there are processors, so only run it with at least as many
+// processors as the most threads asked for.
+//
+// The world is made once for every trial, not every iteration, since a
+// big one takes a while to settle; so it goes on changing from one
+// iteration to the next, as it would in a long run.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelChrononBenchmark
+{
+    @Param({"tile", "claim", "sync"})
+    public String mode;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"2048", "8192"})
+    public int size;
+
+    @Param({"0.3"})
+    public double density;
+
+    private WatorGrid itsGrid;
+
+    @Setup(Level.Trial)
+    public void Setup()
+    {
+        itsGrid = (WatorGrid)Worlds.Make("grid", size, density);
+        itsGrid.Run(20);
+        if (mode.equals("tile"))
+            itsGrid.SetParallelism(threads, 64);
+        else if (mode.equals("claim"))
+            itsGrid.SetClaimParallelism(threads);
+        else
+        {
+            itsGrid.SetSynchronous(true);
+            itsGrid.SetParallelism(threads, 64);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void TearDown()
+    {
+        itsGrid.SetParallelism(1, 64); // let the workers go.
+    }
+
+    @Benchmark
+    public long Chronon()
+    {
+        itsGrid.Chronon();
+        return itsGrid.GetTick();
+    }
+}
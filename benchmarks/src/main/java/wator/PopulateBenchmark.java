@@ -0,0 +1,50 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// PopulateBenchmark
+// Putting a world back into its start state.  Placement shuffles just
+// enough of the list of cells to place the animals, so the density
+// should make little difference beyond the cost of the animals
+// themselves.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulateBenchmark
+{
+    @Param({"engine", "grid"})
+    public String world;
+
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"0.05", "0.3", "0.8"})
+    public double density;
+
+    private WatorWorld itsWorld;
+
+    @Setup
+    public void Setup()
+    {
+        itsWorld = Worlds.Make(world, size, density);
+    }
+
+    @Benchmark
+    public long Populate()
+    {
+        itsWorld.Populate();
+        return itsWorld.GetTick();
+    }
+}
@@ -0,0 +1,96 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+import java.awt.*;
+import java.awt.image.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// RenderBenchmark
+// Drawing a chronon's worth of changed cells, and getting them onto a
+// screen-sized image.  Raster is the WatorRaster, with one Blit a frame.
+// FillRect is the way the applet used to do it: a setColor and a fillRect
+// for every cell, straight onto the screen.  The chronon itself is not
+// measured; its changes are recorded once, in Setup, and replayed.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark
+{
+    @Param({"1", "2"})
+    public int cellSize;
+
+    @Param({"512"})
+    public int size;
+
+    private int itsChanges[]; // x, y, color; for every change of a chronon
+    private int itsChangeCount = 0;
+    private WatorRaster itsRaster;
+    private BufferedImage itsScreen;
+    private Graphics itsGraphics;
+
+    @Setup
+    public void Setup()
+    {
+        WatorWorld w = Worlds.Settled("grid", size, 0.3);
+        itsChanges = new int[3 * size * size * 2];
+        w.SetObserver(new WatorObserver()
+        {
+            public void CellChanged(int x, int y, int color)
+            {
+                if (itsChangeCount+3 <= itsChanges.length)
+                {
+                    itsChanges[itsChangeCount++] = x;
+                    itsChanges[itsChangeCount++] = y;
+                    itsChanges[itsChangeCount++] = color;
+                }
+            }
+
+            public void ChrononEnded(long tick)
+            {
+            }
+        });
+        w.Chronon();
+        w.SetObserver(null);
+
+        itsRaster = new WatorRaster(size, size, cellSize, 0xC0C0C0);
+        itsScreen = new BufferedImage(size*cellSize, size*cellSize,
+                                      BufferedImage.TYPE_INT_RGB);
+        itsGraphics = itsScreen.getGraphics();
+    }
+
+    @TearDown
+    public void TearDown()
+    {
+        itsGraphics.dispose();
+    }
+
+    @Benchmark
+    public void Raster()
+    {
+        for (int c=0; c<itsChangeCount; c+=3)
+            itsRaster.CellChanged(itsChanges[c], itsChanges[c+1], itsChanges[c+2]);
+        itsRaster.Blit(itsGraphics);
+    }
+
+    @Benchmark
+    public void FillRect()
+    {
+        for (int c=0; c<itsChangeCount; c+=3)
+        {
+            itsGraphics.setColor(new Color(itsChanges[c+2]));
+            itsGraphics.fillRect(itsChanges[c]*cellSize, itsChanges[c+1]*cellSize,
+                                 cellSize-1, cellSize-1);
+        }
+    }
+}
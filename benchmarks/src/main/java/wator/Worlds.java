@@ -0,0 +1,46 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the benchmarks.
+
+package wator;
+
+// Worlds
+// Every benchmark starts from a world made here, so that they all mean the
+// same thing by a size and a density.  The density is the fraction of the
+// cells that start with a fish; a tenth as many start with a shark.  The
+// seed is fixed, so every run of a benchmark starts from the same world.
+
+class Worlds
+{
+    static final long SEED = 1997;
+
+    static WatorWorld Make(String kind, int size, double density)
+    {
+        WatorWorld w;
+        if (kind.equals("grid"))
+            w = new WatorGrid(size, size);
+        else if (kind.equals("ocean"))
+            w = new WatorOcean(size, size);
+        else if (kind.equals("sparse"))
+            w = WatorOcean.Sparse(size, size);
+        else
+            w = new WatorEngine(size, size);
+        w.SetSeed(SEED);
+        int fish = (int)(density * size * size);
+        w.SetStartPopulations(fish, fish / 10);
+        w.Populate();
+        return w;
+    }
+
+    // A world that has been running for a while, so that its populations
+    // have settled into their usual ups and downs.
+    static WatorWorld Settled(String kind, int size, double density)
+    {
+        WatorWorld w = Make(kind, size, density);
+        w.Run(100);
+        return w;
+    }
+}
@@ -0,0 +1,783 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: split out of Wator.java so that the engine can run headless.
+// Animals no longer draw themselves; they report their color and the
+// engine tells its observer which cells changed.
+// Modified: adjacency comes from the Neighborhood; no Cells are made.
+// Modified: move choices are a bit mask of directions, not a Vector.
+// Modified: sharks ask the engine's census whether fish are near.
+// Modified: random numbers come from the engine's seeded WatorRandom.
+// Modified: all empty cells share one Algae.  The wake up that the
+// Algae constructor used to do is done by WatorEngine.Vacate.
+// Modified: any animal that can't move may sleep, not just fish.  LinkBack
+// is gone.
+// Modified: the list of animals is an AnimalList, not links in the animals.
+// Modified: timers are the ticks things happen on, not counts, and alarms
+// are kept by a TimerWheel.
+// Modified: animals write and read their state for WatorSnapshot.
+// Modified: animals tell the engine's WatorEvents what they do.
+// Modified: Reproduce and ProcessTic are timed for WatorMetrics.
+// Modified: moved into the package wator.
+
+package wator;
+
+import java.io.IOException;
+
+// Animals
+// The animal hierarchy is the heart of the simulation.  Each of the three
+// different kinds of animals in Wator (algae, fish, shark) derives from
+// Animal.
+
+abstract class Animal
+{
+    abstract public int GetColor();
+        // The color the animal is drawn in, packed as 0xRRGGBB.
+    abstract protected void ProcessTic(WatorEngine w);
+        // Do extra processing once the animal has moved and
+        // reproduced.  Sharks use this to see if they starve.
+    abstract protected int GetCellChoices(WatorEngine w);
+        // Return the directions that this animal can legally move
+        // in; one bit for each Neighborhood direction.  If animals
+        // appear in those cells, they may be eaten.
+    abstract protected void Eat(Animal a, long tick);
+        // Eat an animal.
+    abstract protected Animal Reproduce(Cell c, WatorEngine w);
+        // Make a baby.  Might mutate...
+    abstract protected boolean CanReproduce(long tick);
+        // Determine if this animal is in a state allowing it
+        // to reproduce.
+
+    // Constructor.
+    public Animal(Cell c, int g, WatorEngine w)
+    {
+        itsCell = c;
+        itsGestation=g;
+        if (w != null)
+            itsReadyTick = ReadyTick(w.itsTick);
+        Link(w); // add it to the wator.itsAnimals list.
+    }
+
+    // We keep a list of the living animals for speed.  It is much faster
+    // to go through the list of fish and sharks than it would be to walk
+    // through every cell in the world.  This is because we never have to
+    // see if Algae reproduce or move.  Algae is really just a NULL object.
+    // See AnimalList.
+    protected void Link(WatorEngine w)
+    {
+        if (itsListIndex < 0)
+            w.itsAnimals.Add(this);
+    }
+
+    // Unlink just takes the animal out of the WatorEngine.itsAnimals list.
+    protected void Unlink(WatorEngine w)
+    {
+        if (itsListIndex >= 0)
+            w.itsAnimals.Remove(this);
+    }
+
+    public boolean IsLinked() {return itsListIndex >= 0;}
+
+    public Cell GetCell() {return itsCell;}
+    public int  GetGestation() {return itsGestation;}
+    public int  GetStarvation() {return 0;} // only sharks starve.
+
+    // An animal born, or giving birth, on the given tick may reproduce
+    // again once its gestation period has gone by.  (Its first turn is on
+    // the next tick.)
+    private long ReadyTick(long tick)
+    {
+        return tick + itsGestation + 1;
+    }
+
+    // The heart of each animal.  This function sets the overall policy
+    // that all animals follow.  Each type of animal modifies this
+    // policy by overriding one of the abstract functions above.
+    public void Tic(long tick, WatorEngine w)
+    {
+        Cell oldCell = itsCell;
+        int choices = this.GetCellChoices(w);
+        if (choices != 0)
+        {
+             // choose the cell to move into.
+            int choice = (int)(w.rand.NextFloat() * Integer.bitCount(choices));
+            int dir = Neighborhood.NthDirection(choices, choice);
+            Cell chosenCell = oldCell.Step(dir, w);
+
+            // Eat whatever is in the chosen cell
+            Animal loser = w.GetCell(chosenCell);
+            loser.Unlink(w);
+            Eat(loser, tick);
+
+            // Either reproduce or move into the chosen cell.
+            // We add the random element here because otherwise all the
+            // animals tend to reproduce at the same time.  The random
+            // factor spreads the animals' reproduction times out in time.
+
+            if (tick >= itsReadyTick &&
+                w.rand.NextFloat() > 0.1 &&
+                CanReproduce(tick))
+            {
+                long start = WatorMetrics.Start(w.itsMetrics);
+                Animal baby = Reproduce(chosenCell,w);
+                w.SetCell(chosenCell, baby);
+                itsReadyTick = ReadyTick(tick);
+                WatorMetrics.Took(w.itsMetrics, WatorMetrics.REPRODUCE, start);
+                if (w.itsEvents != null)
+                    w.itsEvents.Born(w.IndexOf(oldCell), dir,
+                                     WatorEngine.SpeciesOf(baby),
+                                     baby.GetStarvation());
+            }
+            else
+            {
+                // move out of the current cell;  We do this by putting
+                // algae into the cell where we were.
+              MoveOutOfCurrentCell(w, oldCell, chosenCell);
+              if (w.itsEvents != null)
+                  w.itsEvents.Moved(w.IndexOf(oldCell), dir);
+            }
+            // now tell the world about the two cells that changed.
+            w.CellChanged(chosenCell);
+            w.CellChanged(oldCell);
+        }
+
+        // Finally, check to see if the animal has any extra processing
+        // to perform.
+        long start = WatorMetrics.Start(w.itsMetrics);
+        ProcessTic(w);
+        WatorMetrics.Took(w.itsMetrics, WatorMetrics.PROCESS, start);
+
+        // If we couldn't move, and we're still alive, we may sleep.
+        if (choices == 0 && w.GetCell(itsCell) == this && CanSleep(w))
+            Sleep(w);
+    }
+
+    //---------------------------
+    // Sleeping.
+    //
+    // An animal that can't move has nothing to do but wait; and it will
+    // go on having nothing to do until one of the cells around it changes.
+    // Waiting doesn't need a turn every chronon.  So the animal goes to
+    // sleep: it is taken out of the list of animals, and put back -- woken
+    // -- by WatorEngine.SetCell when a cell next to it changes in a way
+    // that matters to it.  The animal's timers are all ticks, not counts,
+    // so they need nothing doing while it sleeps.
+    //
+    // Some things happen just because time passes.  A shark starves, and
+    // coral dies of old age.  So an animal may also set an alarm, the tick
+    // on which it must have its turn even if nothing around it changes.
+    // See TimerWheel.
+    //
+    // A woken animal goes back on the list, but not into the chronon's
+    // snapshot of it, so it never has its turn twice in one chronon.
+    // Mature worlds are mostly solid blocks of fish, sharks and coral, and
+    // only the animals at the edges of the blocks are awake.
+    //---------------------------
+
+    // May this animal, which couldn't move, go to sleep?
+    protected boolean CanSleep(WatorEngine w) {return true;}
+
+    // The directions, one bit for each, in which a change to the cell
+    // next door might give a sleeping animal something to do.
+    protected int Watches() {return 0xFF;}
+
+    // Would the given animal, moving in next door, give us something to
+    // do?
+    protected boolean WakesFor(Animal a) {return true;}
+
+    // The tick on which this animal must have a turn, asleep or not; or
+    // zero if it can sleep for ever.
+    protected long Alarm() {return 0;}
+
+    public boolean IsAsleep() {return isAsleep;}
+
+    void Sleep(WatorEngine w)
+    {
+        Unlink(w);
+        isAsleep = true;
+        w.Asleep(this);
+    }
+
+    void Wake(WatorEngine w)
+    {
+        if (isAsleep)
+        {
+            isAsleep = false;
+            Link(w);
+        }
+    }
+
+    //---------------------------
+    // Snapshots.  See WatorEngine.Save.  Each kind of animal writes the
+    // state it needs to carry on, after the state of the kinds it is
+    // made from, and reads it back in the same order.
+    //---------------------------
+
+    void Write(WatorSnapshot s) throws IOException
+    {
+        s.PutInt(itsGestation);
+        s.PutLong(itsReadyTick);
+        s.PutLong(itsAlarmTick);
+    }
+
+    void Read(WatorSnapshot s) throws IOException
+    {
+        itsGestation = s.GetInt();
+        itsReadyTick = s.GetLong();
+        itsAlarmTick = s.GetLong();
+    }
+
+    // WatorEngine.Read puts sleepers back to sleep; it sees to the list.
+    void SetAsleep(boolean asleep) {isAsleep = asleep;}
+
+    private boolean isAsleep = false;
+    private Cell itsCell;
+    private long itsReadyTick;  // when we may next reproduce.
+    private int itsGestation;
+    int itsListIndex = -1; // where we are in the list; -1 if we're not.
+    long itsAlarmTick = 0; // the alarm we want; see TimerWheel.
+
+  private void MoveOutOfCurrentCell(WatorEngine w, Cell oldCell, Cell chosenCell)
+  {
+    w.SetCell(chosenCell, this);
+    itsCell=chosenCell;
+    w.Vacate(oldCell);
+  }
+}
+
+// Sharks are regular Animals, except that they can starve if they don't
+// eat regularly.
+class Shark extends Animal
+{
+    public Shark(Cell c, int g, int s, WatorEngine w)
+    {
+        super(c, g, w);
+        itsStarvation = s;
+        itsStarveTick = w.itsTick + s + 1;
+        itsLastMealTick = 0;
+        itsMealCount = 0;
+    }
+
+    // After all the moving and eating is done, see if we managed to
+    // get a meal.  If not, then perhaps we'll die and be replaced
+    // by algae.
+    //
+    // Shark father to little boy Shark: "Son, when we die, our bodies
+    // become the algae, and the fish eat the algae.  And so we are all
+    // bound in the great circle of life..."
+    protected void ProcessTic(WatorEngine w)
+    {
+        if (w.itsTick >= itsStarveTick)
+        {
+            Unlink(w);
+            w.Vacate(GetCell());
+            w.CellChanged(GetCell());
+            if (w.itsEvents != null)
+                w.itsEvents.Died(w.IndexOf(GetCell()), WatorEvents.STARVED);
+        }
+    }
+
+    public int GetStarvation() {return itsStarvation;}
+
+    // A shark that sleeps still starves.  It must wake on the tick it
+    // would starve to death.
+    protected long Alarm()
+    {
+        return itsStarveTick;
+    }
+
+    // Sharks have choices!  If there are any fish near enough to eat
+    // then we will ignore empty spaces.  Otherwise we can move in any of
+    // the eight directions, displacing any Algae that happen to be there.
+    // We would rather go where the fish are, and failing that we would
+    // rather stay with the other sharks.
+    protected int GetCellChoices(WatorEngine w)
+    {
+        Cell myCell = GetCell();
+        int choices = 0;
+
+        for (int d=0; d<8; d++)
+        {
+            Animal a = w.GetCell(myCell.Step(d, w));
+            if ((a instanceof Fish) ||
+                (a instanceof Shark &&
+                itsStarvation > ((Shark)a).itsStarvation))
+                choices |= 1<<d;
+        }
+
+        if (choices == 0) // can't eat, so follow the fish.
+            for (int d=0; d<8; d++)
+                if (fishNear(myCell.Step(d, w), w))
+                    choices |= 1<<d;
+
+        if (choices == 0) // can't follow, so school.
+            for (int d=0; d<8; d++)
+                if (sharkNear(myCell.Step(d, w), w))
+                    choices |= 1<<d;
+
+        if (choices == 0) // can't school, so wander.
+            for (int d=0; d<8; d++)
+                if (w.GetCell(myCell.Step(d, w)) instanceof Algae)
+                    choices |= 1<<d;
+
+        return choices;
+    }
+
+    // Is the given cell empty, with a fish next to it?  The census
+    // knows, so we don't have to look.
+    private boolean fishNear(Cell c, WatorEngine w)
+    {
+        return w.FishAround(c) > 0 && w.GetCell(c) instanceof Algae;
+    }
+
+    // Is the given cell empty, with a shark next to it?  (We are next to
+    // it, so this is always true of empty cells around us.)
+    private boolean sharkNear(Cell c, WatorEngine w)
+    {
+        return w.SharksAround(c) > 0 && w.GetCell(c) instanceof Algae;
+    }
+
+    // We eat the algae, but it doesn't do us any good.
+    protected void Eat(Animal a, long tick)
+    {
+        if (a instanceof Fish || (a instanceof Shark))
+        {
+            itsStarveTick = tick + itsStarvation;
+            itsLastMealTick = tick;
+            itsMealCount++;
+        }
+    }
+
+    // We can only reproduce if we have eaten more than once,
+    // the second time recently.
+    protected boolean CanReproduce(long tick)
+    {
+        return (itsMealCount > 1) && ((tick - itsLastMealTick) <= 2);
+    }
+
+    // Make a baby shark.  But first, see if that shark should be a
+    // mutant.  We can mutate along two axes.  Its gestation period can
+    // change, or its starvation time can change.  Gestation can never
+    // go below 1.  If starvation goes below 1, then the shark dies as soon
+    // as it is born, so who cares.
+    protected Animal Reproduce(Cell c, WatorEngine w)
+    {
+        int delta = (int)(w.rand.NextGaussian()/2.8);
+        int g = GetGestation() + delta;
+        int s = itsStarvation  + delta;
+        if (g<1) g=1;
+        itsMealCount = 0;
+
+        return new Shark(c, g, s, w);
+    }
+
+    // Color the shark in its rainbow array of mutant colors.
+    public int GetColor()
+    {
+        return ColorOf(itsStarvation);
+    }
+
+    // The color of a shark with the given starvation time.  WatorGrid
+    // uses this too, since it has no Shark objects to ask.
+    public static int ColorOf(int starvation)
+    {
+        int c;
+        switch(starvation)
+        {
+            case 0:
+            case 1:
+            case 2:
+            case 3:
+            case 4:
+            case 5:  c = 0xFFC800; break; // orange
+            case 6:
+            case 7:  c = 0xFF0000; break; // red
+            case 8:
+            case 9:  c = 0x808080; break; // gray
+            case 10:
+            case 11: c = 0xFF00FF; break; // magenta
+            case 12:
+            case 13: c = 0x00FFFF; break; // cyan
+            default: c = 0x000000; break; // black
+        }
+        return c;
+    }
+
+    void Write(WatorSnapshot s) throws IOException
+    {
+        super.Write(s);
+        s.PutInt(itsStarvation);
+        s.PutLong(itsStarveTick);
+        s.PutLong(itsLastMealTick);
+        s.PutLong(itsMealCount);
+    }
+
+    void Read(WatorSnapshot s) throws IOException
+    {
+        super.Read(s);
+        itsStarvation = s.GetInt();
+        itsStarveTick = s.GetLong();
+        itsLastMealTick = s.GetLong();
+        itsMealCount = s.GetLong();
+    }
+
+    private int itsStarvation;
+    private long itsStarveTick; // when we die, unless we eat first.
+    private long itsLastMealTick;
+    private long itsMealCount;
+}
+
+// Fish are regular animals.  There are no surprises here.
+class Fish extends Animal
+{
+    public Fish(Cell c, int g, WatorEngine w)
+    {
+        super(c, g, w);
+    }
+
+    // No extra processing for Fish.
+    protected void ProcessTic(WatorEngine w)
+    {
+    }
+
+    // Fish can move into any adjacent algae.  Poor algae.  Fish only
+    // swim North, South, East and West.
+    protected int GetCellChoices(WatorEngine w)
+    {
+        Cell myCell = GetCell();
+        int choices = 0;
+        for (int d=0; d<4; d++)
+            if (w.GetCell(myCell.Step(d, w)) instanceof Algae)
+                choices |= 1<<d;
+        return choices;
+    }
+
+    // So a fish that can't move only cares about the same four cells,
+    // and only when one of them is emptied.
+    protected int Watches() {return 0x0F;}
+
+    protected boolean WakesFor(Animal a) {return a instanceof Algae;}
+
+    // Nothing interesting happens when a Fish eats.
+    protected void Eat(Animal a, long tick)
+    {
+    }
+
+    protected boolean CanReproduce(long tick)
+    {
+        return true;
+    }
+
+    protected Animal Reproduce(Cell c, WatorEngine w)
+    {
+        Animal progeny;
+        if (w.rand.NextDouble() < 0.99995)
+            progeny = new Fish(c, GetGestation(), w);
+        else
+            progeny = new Coral(c, w);
+
+        return progeny;
+    }
+
+    public int GetColor()
+    {
+        return 0x00FF00; // green
+    }
+}
+
+// Algae are wierd little animals.  They don't do anything much.
+// Algae is an example of the "Null Object" pattern by "Bobby Woolf".
+// (See Pattern Languages of Program Design, Volume 3, Addison Wesley);
+// and, since it has no state, of the "Flyweight" pattern too.
+
+class Algae extends Animal
+{
+    // There is only one Algae.  Every empty cell holds it.  It has no
+    // Cell of its own (GetCell returns null), and is never linked into
+    // the list, so it can be shared by the whole world; and by every
+    // world.  Making a cell empty never makes any garbage.
+    public static final Algae ALGAE = new Algae();
+
+    private Algae()
+    {
+        super(null, 0, null);
+    }
+
+    // We override Tic just in case some blockhead calls it.  Since Algae
+    // are never put into the WatorEngine.itsAnimals list; Tic should never be
+    // called.  (And if by some chance an Algae does get put into the list,
+    // I don't want the program to misbehave.  It's a benign tumor.
+    public void Tic(long tick, WatorEngine w)
+    {
+        System.out.println("Algae Tic!!!");
+    }
+
+    protected void ProcessTic(WatorEngine w)
+    {
+    }
+
+    protected int GetCellChoices(WatorEngine w)
+    {
+        return 0;
+    }
+
+    protected void Eat(Animal a, long tick)
+    {
+    }
+
+    protected void Unlink(WatorEngine w) {}
+    protected void Link(WatorEngine w) {}
+
+    protected boolean CanReproduce(long tick)
+    {
+        return false;
+    }
+
+    protected Animal Reproduce(Cell c, WatorEngine w)
+    {
+        return null;
+    }
+
+    // You may have been asking yourself why this class exists.  Well,
+    // here is the real reason.  I don't want to have if statements in
+    // the drawing code that check for null.  So I created Algae that has
+    // a color.
+    public int GetColor()
+    {
+        return 0xFFFFFF; // white
+    }
+
+
+}
+
+//-----------------------------
+// Coral
+//
+//  Coral is created as a bizarre mutation of a fish.  It does not move
+//  eat or reproduce.  But it does age.  Fish that touch coral have a
+//  very small chance of immediately turning into coral themselves.
+//  Ancient coral slowly dies, turning into algae.
+//  Coral that is surrounded by other coral also dies of overpopulation.
+//  Coral that is surrounded by nothing but Algae also dies.
+
+class Coral extends Animal
+{
+    // The constructor sets the lifetime clock ticking at a random
+    // age.
+    public Coral(Cell c, WatorEngine w)
+    {
+        super(c, 0, w);
+        int lifeTime = 300;
+        lifeTime += w.rand.NextGaussian() * (lifeTime / 5);
+        itsBirthTick = w.itsTick;
+        itsDeathTick = w.itsTick + Math.max(lifeTime, 1);
+    }
+
+    public int GetColor()
+    {
+        return 0x0000FF; // blue
+    }
+
+    // coral's only time dependent action is to age and die.
+    protected void ProcessTic(WatorEngine w)
+    {
+        // Determine if its time to die, and then die.
+        if (w.itsTick >= itsDeathTick) // time to die
+        {
+            Unlink(w);
+            w.Vacate(GetCell());
+            w.CellChanged(GetCell());
+            if (w.itsEvents != null)
+                w.itsEvents.Died(w.IndexOf(GetCell()), WatorEvents.OLD_AGE);
+
+            // Now make neighboring coral sick.
+            Cell north = GetCell().North(w);
+            Cell south = GetCell().South(w);
+            Cell east  = GetCell().East(w);
+            Cell west  = GetCell().West(w);
+
+            if (w.GetCell(north) instanceof Coral)
+            {
+                Coral c = (Coral)(w.GetCell(north));
+                c.infect(w);
+            }
+            if (w.GetCell(south) instanceof Coral)
+            {
+                Coral c = (Coral)(w.GetCell(south));
+                c.infect(w);
+            }
+            if (w.GetCell(east) instanceof Coral)
+            {
+                Coral c = (Coral)(w.GetCell(east));
+                c.infect(w);
+            }
+            if (w.GetCell(west) instanceof Coral)
+            {
+                Coral c = (Coral)(w.GetCell(west));
+                c.infect(w);
+            }
+            return; // dead coral don't sting.
+        }
+
+        // Determine if we have overpopulated.
+
+        Cell myCell = GetCell();
+        Cell north = myCell.North(w);
+        Cell south = myCell.South(w);
+        Cell east =  myCell.East(w);
+        Cell west =  myCell.West(w);
+
+        Animal na = w.GetCell(north);
+        Animal sa = w.GetCell(south);
+        Animal ea = w.GetCell(east);
+        Animal wa = w.GetCell(west);
+
+        if (na instanceof Coral &&
+            sa instanceof Coral &&
+            ea instanceof Coral &&
+            wa instanceof Coral)
+        {
+            Unlink(w);
+            w.Vacate(GetCell());
+            w.CellChanged(GetCell());
+            if (w.itsEvents != null)
+                w.itsEvents.Died(w.IndexOf(GetCell()), WatorEvents.CROWDED);
+            return;
+        }
+
+        // if coral is surrounded by nothing but algae, it also
+        // dies.
+        if (na instanceof Algae &&
+            sa instanceof Algae &&
+            ea instanceof Algae &&
+            wa instanceof Algae)
+        {
+            Unlink(w);
+            w.Vacate(GetCell());
+            w.CellChanged(GetCell());
+            if (w.itsEvents != null)
+                w.itsEvents.Died(w.IndexOf(GetCell()), WatorEvents.LONELY);
+            return;
+        }
+
+        // Determine if we can poison a nearby fish and turn
+        // it into coral.
+
+        if (w.rand.NextDouble() > (1 - Venom(w.itsTick)))
+        {
+
+            if (na instanceof Fish && w.rand.NextDouble() > .7)
+            {
+                sting(na,w);
+                w.CellChanged(na.GetCell());
+            }
+
+            if (sa instanceof Fish && w.rand.NextDouble() > .7)
+            {
+                sting(sa,w);
+                w.CellChanged(sa.GetCell());
+            }
+
+            if (ea instanceof Fish && w.rand.NextDouble() > .7)
+            {
+                sting(ea,w);
+                w.CellChanged(ea.GetCell());
+            }
+
+            if (wa instanceof Fish && w.rand.NextDouble() > .7)
+            {
+                sting(wa,w);
+                w.CellChanged(wa.GetCell());
+            }
+        }
+    }
+
+    // The venom starts at .9, and loses a tenth of its effectiveness
+    // every tick.
+    private double Venom(long tick)
+    {
+        return Math.pow(.9, tick - itsBirthTick);
+    }
+
+    // Coral can sleep as long as there are no fish to sting.  Whether it
+    // is crowded, or lonely, only changes when one of the four cells next
+    // to it does.  But it must wake up to die of old age.
+    protected boolean CanSleep(WatorEngine w)
+    {
+        Cell myCell = GetCell();
+        for (int d=0; d<4; d++)
+            if (w.GetCell(myCell.Step(d, w)) instanceof Fish)
+                return false;
+        return true;
+    }
+
+    protected int Watches() {return 0x0F;}
+
+    protected long Alarm()
+    {
+        return itsDeathTick;
+    }
+
+    // Sick coral has only a few ticks left.  If it is asleep, it must be
+    // woken sooner.
+    public void infect(WatorEngine w)
+    {
+        int lifeTime = 5 + (int)w.rand.NextGaussian()*5;
+        itsDeathTick = w.itsTick + Math.max(lifeTime, 1);
+        if (IsAsleep())
+            w.SetAlarm(this);
+        if (w.itsEvents != null)
+            w.itsEvents.Infected(w.IndexOf(GetCell()));
+    }
+
+    private void sting(Animal a, WatorEngine w)
+    {
+        Cell c = a.GetCell();
+        a.Unlink(w);
+        Coral theCoral = new Coral(c,w);
+        w.SetCell(c, theCoral);
+        if (w.itsEvents != null)
+            w.itsEvents.Stung(w.IndexOf(c));
+    }
+
+    // Coral does not move, so there are no choices.
+    protected int GetCellChoices(WatorEngine w)
+    {
+        return 0;
+    }
+
+    // Coral does not eat.
+    protected void Eat(Animal a, long tick)
+    {
+    }
+
+    // Coral does not reproduce.
+    protected Animal Reproduce(Cell c, WatorEngine w)
+    {
+        return null;
+    }
+
+    protected boolean CanReproduce(long tick)
+    {
+        return false;
+    }
+
+    void Write(WatorSnapshot s) throws IOException
+    {
+        super.Write(s);
+        s.PutLong(itsBirthTick);
+        s.PutLong(itsDeathTick);
+    }
+
+    void Read(WatorSnapshot s) throws IOException
+    {
+        super.Read(s);
+        itsBirthTick = s.GetLong();
+        itsDeathTick = s.GetLong();
+    }
+
+    private long itsBirthTick;
+    private long itsDeathTick;
+}
@@ -0,0 +1,117 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to replace the doubly linked list of animals that was
+// threaded through the animals themselves.
+
+package wator;
+
+import java.util.*;
+
+// AnimalList
+// The living, waking animals of a WatorEngine, in an array.  Every animal
+// in the list knows where it is in the array, so taking one out is just a
+// matter of moving the last animal into its place.  Adding one puts it on
+// the end.  Both take the same short time however long the list is.
+//
+// The old linked list made every turn a jump to wherever the next animal
+// happened to have been allocated.  Walking an array is much kinder to
+// the cache; and if the list is sorted now and then by cell, the animals
+// that take their turns one after another live next to one another in the
+// world, too.
+//
+// The list changes while the animals take their turns: they are born, and
+// die, and fall asleep, and wake.  So the turns are taken from a snapshot
+// of the list, taken at the start of the chronon.  An animal that has left
+// the list by the time its turn comes doesn't get one; an animal that has
+// joined the list since the snapshot waits for the next chronon.  The
+// snapshot can be shuffled, so that nobody always goes first.
+
+class AnimalList
+{
+    private Animal itsAnimals[] = new Animal[1024];
+    private int itsSize = 0;
+    private Animal itsTurns[] = new Animal[1024]; // the snapshot.
+    private long itsKeys[] = new long[0];         // for sorting.
+
+    int Size() {return itsSize;}
+
+    Animal Get(int i) {return itsAnimals[i];}
+
+    void Add(Animal a)
+    {
+        if (itsSize == itsAnimals.length)
+            itsAnimals = Arrays.copyOf(itsAnimals, itsSize*2);
+        a.itsListIndex = itsSize;
+        itsAnimals[itsSize++] = a;
+    }
+
+    void Remove(Animal a)
+    {
+        int i = a.itsListIndex;
+        Animal last = itsAnimals[--itsSize];
+        itsAnimals[i] = last;
+        last.itsListIndex = i;
+        itsAnimals[itsSize] = null;
+        a.itsListIndex = -1;
+    }
+
+    void Clear()
+    {
+        for (int i=0; i<itsSize; i++)
+            itsAnimals[i].itsListIndex = -1;
+        Arrays.fill(itsAnimals, 0, itsSize, null);
+        Arrays.fill(itsTurns, null);
+        itsSize = 0;
+    }
+
+    // Copy the list into the snapshot, and return how many there are.  If
+    // rand is not null, the snapshot is shuffled with it.  The snapshot
+    // is left alone afterwards, so it may hold on to a few dead animals
+    // until the next one is taken.
+    int Snapshot(WatorRandom rand)
+    {
+        if (itsTurns.length < itsSize)
+            itsTurns = new Animal[itsAnimals.length];
+        System.arraycopy(itsAnimals, 0, itsTurns, 0, itsSize);
+        if (rand != null)
+            for (int i=itsSize-1; i>0; i--)
+            {
+                int j = rand.NextInt(i+1);
+                Animal t = itsTurns[i];
+                itsTurns[i] = itsTurns[j];
+                itsTurns[j] = t;
+            }
+        return itsSize;
+    }
+
+    Animal Turn(int i) {return itsTurns[i];}
+
+    // Put the list in the order of the cells the animals are in; the
+    // order, that is, of WatorEngine.world, column by column.  The keys
+    // carry the cell in their high half and the animal's place in the
+    // list in their low half, so a sort of plain longs does the work.
+    void Sort(int height)
+    {
+        if (itsKeys.length < itsSize)
+            itsKeys = new long[itsAnimals.length];
+        for (int i=0; i<itsSize; i++)
+        {
+            Cell c = itsAnimals[i].GetCell();
+            itsKeys[i] = (long)(c.GetX()*height + c.GetY()) << 32 | i;
+        }
+        Arrays.sort(itsKeys, 0, itsSize);
+
+        // The snapshot is free between chronons; use it to hold the list
+        // in its old order.
+        Snapshot(null);
+        for (int i=0; i<itsSize; i++)
+        {
+            Animal a = itsTurns[(int)itsKeys[i]];
+            a.itsListIndex = i;
+            itsAnimals[i] = a;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: split out of Wator.java so that the engine can run headless.
+// Modified: Cells are made once, by the Neighborhood, and shared.
+// Modified: moved into the package wator.
+
+package wator;
+
+// Cell.
+// This class is an abstraction of the coordinates of wator.  It has no
+// public constructor!  The Neighborhood makes one Cell for every position
+// in the world, and the only way to get a Cell is to ask for it; either
+// by direction, or by calling Normalize.  Normalize makes sure that the
+// cell is "in bounds".  Thus, no cell can ever be created that is not in
+// bounds.
+//
+// The Neighborhood takes care of wrapping the rectangular grid into the
+// wator torus.
+//
+class Cell
+{
+    Cell(int x, int y) {itsX = x; itsY = y;} // for Neighborhood only.
+
+    private int itsX;
+    private int itsY;
+    public int GetX() {return itsX;}
+    public int GetY() {return itsY;}
+
+    // The direction functions return the Cell that is one step
+    // in the specified direction.
+
+    public Cell North(WatorEngine w) {return Step(Neighborhood.NORTH, w);}
+    public Cell South(WatorEngine w) {return Step(Neighborhood.SOUTH, w);}
+    public Cell East(WatorEngine w)  {return Step(Neighborhood.EAST, w);}
+    public Cell West(WatorEngine w)  {return Step(Neighborhood.WEST, w);}
+
+    // One step in any of the eight Neighborhood directions.
+    public Cell Step(int dir, WatorEngine w)
+    {
+        return w.itsNeighborhood.Neighbor(this, dir);
+    }
+
+    public static Cell Normalize(int x, int y, WatorEngine w)
+    {
+        return w.itsNeighborhood.GetWrappedCell(x, y);
+    }
+}
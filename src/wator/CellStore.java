@@ -0,0 +1,94 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that a WatorOcean can keep its cells in more than one
+// way.
+
+package wator;
+
+import java.io.IOException;
+
+// CellStore
+// Where a WatorOcean keeps its cells: a GridStore, which has room for
+// every cell, or a ChunkStore, which has room only for the parts of the
+// world that have something in them.
+//
+// Every cell is a record of RECORD bytes, which holds everything WatorGrid
+// keeps in its parallel arrays.  A cell only ever holds one species, so
+// the fields of sharks and of coral share the same bytes:
+//
+//   0   species
+//   1   stamp
+//   2   meal count        (sharks)
+//   4   gestation
+//   6   gestation timer
+//   8   starvation        (sharks)   or  lifetime (coral)
+//   10  starvation timer  (sharks)
+//   12  last meal tick    (sharks)   or  venom (coral), as a float
+//
+// Moving an animal is copying its record: two longs.
+//
+// Cells are numbered with longs, in whatever order suits the store; Index
+// gives the number of the cell at x, y, and XOf and YOf take it back.  A
+// cell whose species is algae has nothing else in it that matters; its
+// other fields may be anything.
+
+abstract class CellStore
+{
+    static final int RECORD = 16;
+
+    // The fields.
+    static final int SPECIES          = 0;
+    static final int STAMP            = 1;
+    static final int MEAL_COUNT       = 2;
+    static final int GESTATION        = 4;
+    static final int GESTATION_TIMER  = 6;
+    static final int STARVATION       = 8;
+    static final int LIFETIME         = 8;
+    static final int STARVATION_TIMER = 10;
+    static final int LAST_MEAL_TICK   = 12;   // low 32 bits; see GridRules.MealAge
+    static final int VENOM            = 12;
+
+    abstract long GetCells();
+
+    // Let go of the cells; the store can't be used any more.
+    abstract void Close() throws IOException;
+
+    // Make every cell algae.
+    abstract void Clear();
+
+    abstract long Index(int x, int y);
+    abstract int XOf(long cell);
+    abstract int YOf(long cell);
+
+    abstract byte GetByte(long cell, int field);
+    abstract void PutByte(long cell, int field, byte v);
+    abstract short GetShort(long cell, int field);
+    abstract void PutShort(long cell, int field, short v);
+    abstract int GetInt(long cell, int field);
+    abstract void PutInt(long cell, int field, int v);
+    abstract float GetFloat(long cell, int field);
+    abstract void PutFloat(long cell, int field, float v);
+
+    // Copy the whole record of one cell into another.
+    abstract void Copy(long from, long to);
+
+    //---------------------------
+    // Chunks.  A store that keeps its cells in square chunks knows which
+    // of them are nothing but algae, so the ocean can pass them by.  A
+    // store with no chunks says so with a chunk size of zero.
+    //---------------------------
+
+    int GetChunkSize() {return 0;}
+
+    // Whether the chunk that x, y is in is nothing but algae.
+    boolean IsEmpty(int x, int y) {return false;}
+
+    // Whether every chunk in the row of chunks that y is in is.
+    boolean IsEmptyRow(int y) {return false;}
+
+    // Let go of the memory of the chunk that x, y is in, if it is empty.
+    void Release(int x, int y) {}
+}
@@ -0,0 +1,237 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that a thinly populated WatorOcean takes only the
+// memory of the parts of it that are populated.
+
+package wator;
+
+import java.nio.*;
+import java.util.Arrays;
+
+// ChunkStore
+// The cells of a WatorOcean, cut into chunks of SIZE by SIZE cells.  A
+// chunk is given memory, a ByteBuffer on the heap, only when something is
+// put into it; until then every cell of it is algae.  So a world that is
+// mostly algae takes only the memory of the chunks that have animals in
+// them, and the ocean's stepping, counting, drawing and saving can pass
+// the empty chunks by; see CellStore.
+//
+// The store counts the animals in every chunk as their species are put,
+// and in every row of chunks.  A chunk whose animals have all gone keeps
+// its memory until the ocean comes by and Releases it.
+//
+// Cells are numbered chunk by chunk: the chunk's number, then the cell's
+// row and column in the chunk, so that finding a cell takes a shift and a
+// mask, not a division.
+
+class ChunkStore extends CellStore
+{
+    static final int SHIFT = 6;                   // 64 cells on a side.
+    static final int SIZE = 1 << SHIFT;
+    private static final int MASK = SIZE - 1;
+    private static final int CELLS = SHIFT * 2;   // bits of a cell's place
+                                                  // in its chunk.
+
+    private int itsWidth;
+    private int itsHeight;
+    private int itsChunksAcross;
+    private ByteBuffer itsChunks[];     // null: all algae.
+    private int itsAnimals[];           // in each chunk,
+    private long itsRowAnimals[];       // and in each row of chunks.
+    private int itsMaterialized = 0;    // chunks that have memory.
+
+    ChunkStore(int width, int height)
+    {
+        itsWidth = width;
+        itsHeight = height;
+        itsChunksAcross = (width + MASK) >>> SHIFT;
+        int chunksDown = (height + MASK) >>> SHIFT;
+        long chunks = (long)itsChunksAcross * chunksDown;
+        if (chunks > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("too many chunks: " + chunks);
+        itsChunks = new ByteBuffer[(int)chunks];
+        itsAnimals = new int[(int)chunks];
+        itsRowAnimals = new long[chunksDown];
+    }
+
+    long GetCells() {return (long)itsWidth * itsHeight;}
+
+    // How many chunks have memory.
+    int GetMaterialized() {return itsMaterialized;}
+
+    void Close()
+    {
+        Clear();
+    }
+
+    void Clear()
+    {
+        Arrays.fill(itsChunks, null);
+        Arrays.fill(itsAnimals, 0);
+        Arrays.fill(itsRowAnimals, 0);
+        itsMaterialized = 0;
+    }
+
+    long Index(int x, int y)
+    {
+        long chunk = (y >>> SHIFT) * itsChunksAcross + (x >>> SHIFT);
+        return (chunk << CELLS) | ((y & MASK) << SHIFT) | (x & MASK);
+    }
+
+    int XOf(long cell)
+    {
+        return (int)((cell >>> CELLS) % itsChunksAcross) * SIZE + (int)(cell & MASK);
+    }
+
+    int YOf(long cell)
+    {
+        return (int)((cell >>> CELLS) / itsChunksAcross) * SIZE + (int)((cell >>> SHIFT) & MASK);
+    }
+
+    //---------------------------
+    // Chunks.
+    //---------------------------
+
+    int GetChunkSize() {return SIZE;}
+
+    private int ChunkAt(int x, int y)
+    {
+        return (y >>> SHIFT) * itsChunksAcross + (x >>> SHIFT);
+    }
+
+    boolean IsEmpty(int x, int y)
+    {
+        return itsAnimals[ChunkAt(x, y)] == 0;
+    }
+
+    boolean IsEmptyRow(int y)
+    {
+        return itsRowAnimals[y >>> SHIFT] == 0;
+    }
+
+    // An empty chunk's cells are all algae, so there is nothing in them
+    // worth keeping.
+    void Release(int x, int y)
+    {
+        int c = ChunkAt(x, y);
+        if (itsAnimals[c] == 0 && itsChunks[c] != null)
+        {
+            itsChunks[c] = null;
+            itsMaterialized--;
+        }
+    }
+
+    // The memory of a chunk that is to be put into.
+    private ByteBuffer Materialize(int c)
+    {
+        ByteBuffer b = itsChunks[c];
+        if (b == null)
+        {
+            b = ByteBuffer.allocate(RECORD << CELLS).order(ByteOrder.nativeOrder());
+            itsChunks[c] = b;
+            itsMaterialized++;
+        }
+        return b;
+    }
+
+    // A cell's species went from algae to an animal (+1), or back (-1).
+    private void Counted(int c, int delta)
+    {
+        itsAnimals[c] += delta;
+        itsRowAnimals[c / itsChunksAcross] += delta;
+    }
+
+    //---------------------------
+    // Getting and putting the fields of a cell.  Every field of a chunk
+    // with no memory is zero.
+    //---------------------------
+
+    private static int ChunkOf(long cell)
+    {
+        return (int)(cell >>> CELLS);
+    }
+
+    private static int OffsetOf(long cell, int field)
+    {
+        return ((int)cell & ((1 << CELLS) - 1)) * RECORD + field;
+    }
+
+    byte GetByte(long cell, int field)
+    {
+        ByteBuffer b = itsChunks[ChunkOf(cell)];
+        return b == null ? 0 : b.get(OffsetOf(cell, field));
+    }
+
+    void PutByte(long cell, int field, byte v)
+    {
+        int c = ChunkOf(cell);
+        ByteBuffer b = itsChunks[c];
+        if (b == null)
+        {
+            if (v == 0)
+                return; // it already is.
+            b = Materialize(c);
+        }
+        int p = OffsetOf(cell, field);
+        if (field == SPECIES)
+        {
+            byte was = b.get(p);
+            if ((was == WatorGrid.ALGAE) != (v == WatorGrid.ALGAE))
+                Counted(c, v == WatorGrid.ALGAE ? -1 : 1);
+        }
+        b.put(p, v);
+    }
+
+    short GetShort(long cell, int field)
+    {
+        ByteBuffer b = itsChunks[ChunkOf(cell)];
+        return b == null ? 0 : b.getShort(OffsetOf(cell, field));
+    }
+
+    void PutShort(long cell, int field, short v)
+    {
+        Materialize(ChunkOf(cell)).putShort(OffsetOf(cell, field), v);
+    }
+
+    int GetInt(long cell, int field)
+    {
+        ByteBuffer b = itsChunks[ChunkOf(cell)];
+        return b == null ? 0 : b.getInt(OffsetOf(cell, field));
+    }
+
+    void PutInt(long cell, int field, int v)
+    {
+        Materialize(ChunkOf(cell)).putInt(OffsetOf(cell, field), v);
+    }
+
+    float GetFloat(long cell, int field)
+    {
+        ByteBuffer b = itsChunks[ChunkOf(cell)];
+        return b == null ? 0 : b.getFloat(OffsetOf(cell, field));
+    }
+
+    void PutFloat(long cell, int field, float v)
+    {
+        Materialize(ChunkOf(cell)).putFloat(OffsetOf(cell, field), v);
+    }
+
+    // Only animals are ever copied, so the cell copied from is in a chunk
+    // with memory.
+    void Copy(long from, long to)
+    {
+        ByteBuffer f = itsChunks[ChunkOf(from)];
+        int tc = ChunkOf(to);
+        ByteBuffer t = Materialize(tc);
+        int fp = OffsetOf(from, 0);
+        int tp = OffsetOf(to, 0);
+        byte was = t.get(tp);
+        byte is = f.get(fp);
+        if ((was == WatorGrid.ALGAE) != (is == WatorGrid.ALGAE))
+            Counted(tc, is == WatorGrid.ALGAE ? -1 : 1);
+        t.putLong(tp, f.getLong(fp));
+        t.putLong(tp+8, f.getLong(fp+8));
+    }
+}
@@ -0,0 +1,492 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that WatorGrid and WatorOcean share one copy of the
+// rules.
+
+package wator;
+
+// GridRules
+// The rules of Animal.Tic, with the abstract functions of Animal replaced
+// by switches on the species, for worlds that keep a species and a few
+// numbers in every cell instead of objects: WatorGrid, which keeps them in
+// parallel arrays, and WatorOcean, which keeps them in a CellStore.  They
+// give a turn to the animals in their own way, and call Tic for each; the
+// rules get at the cells only through the accessors below, by a cell's
+// number.  A WatorGrid numbers its cells with ints, and an ocean with
+// longs, so the numbers here are longs.
+//
+// Every change of a cell's species is counted into the population array
+// Tic is given.  When claiming (see WatorGrid), TryClaim and Release are
+// called around every cell that is changed other than the animal's own.
+
+abstract class GridRules
+{
+    // initial parameters of Wator.
+    int fishGestation = 3;
+    int sharkGestation = 4;
+    int sharkStarvation = 3;
+
+    int itsWidth;
+    int itsHeight;
+    Neighborhood itsNeighborhood;
+    long itsTick = 0;
+    WatorRandom rand;               // see SetSeed.
+    WatorEvents itsEvents = null;
+
+    // How many cells hold each species.  Whatever changes a cell's species
+    // counts the change, into these or (when stepping in parallel) into
+    // counts of its own, which are added in when it's done.  See Became.
+    long itsPopulation[] = new long[4];
+
+    GridRules(int width, int height)
+    {
+        itsWidth = width;
+        itsHeight = height;
+        itsNeighborhood = new Neighborhood(width, height);
+    }
+
+    public void SetBreeding(int fishGestation, int sharkGestation, int sharkStarvation)
+    {
+        this.fishGestation = fishGestation;
+        this.sharkGestation = sharkGestation;
+        this.sharkStarvation = sharkStarvation;
+    }
+
+    //---------------------------
+    // The cells.
+    //---------------------------
+
+    abstract long Index(int x, int y);
+    abstract long Neighbor(int x, int y, int dir);
+
+    abstract byte  Species(long i);
+    abstract void  SetSpecies(long i, byte s);
+    abstract void  SetStamp(long i, byte s);
+    abstract short Gestation(long i);
+    abstract void  SetGestation(long i, short g);
+    abstract short GestationTimer(long i);
+    abstract void  SetGestationTimer(long i, short t);
+    abstract short Starvation(long i);          // sharks only
+    abstract void  SetStarvation(long i, short s);
+    abstract short StarvationTimer(long i);     // sharks only
+    abstract void  SetStarvationTimer(long i, short t);
+    abstract int   LastMealTick(long i);        // sharks only; see MealAge
+    abstract void  SetLastMealTick(long i, int t);
+    abstract byte  MealCount(long i);           // sharks only
+    abstract void  SetMealCount(long i, byte m);
+    abstract short LifeTime(long i);            // coral only
+    abstract void  SetLifeTime(long i, short l);
+    abstract float Venom(long i);               // coral only
+    abstract void  SetVenom(long i, float v);
+
+    // Copy an animal from one cell to another, leaving algae behind.
+    abstract void Move(long from, long to);
+
+    // Tell the observer, if there is one, that cell i changed.
+    abstract void CellChanged(long i);
+
+    // The number WatorEvents knows cell i by.
+    abstract int EventCell(long i);
+
+    // Claiming; see WatorGrid.  Otherwise every cell is always ours.
+    boolean IsClaiming()      {return false;}
+    boolean TryClaim(long i)  {return true;}
+    void    Release(long i)   {}
+
+    // How many chronons ago a shark that last ate on the given tick ate.
+    // Only the low 32 bits of the tick are kept in a cell, so the
+    // difference is taken in ints; it wraps with the tick, and comes out
+    // right for every meal less than 2^31 chronons old.  A shark can go
+    // no longer than its starvation (a short) without eating, so any meal
+    // that matters is much younger than that.
+    static int MealAge(long tick, int lastMealTick)
+    {
+        return (int)tick - lastMealTick;
+    }
+
+    // A cell went from one species to another; count it.
+    static void Became(long population[], byte from, byte to)
+    {
+        population[from]--;
+        population[to]++;
+    }
+
+    //---------------------------
+    // A turn.
+    //---------------------------
+
+    // This is Animal.Tic, with the abstract functions of Animal
+    // replaced by switches on the species.
+    void Tic(int x, int y, long i, byte s, WatorRandom r, long population[])
+    {
+        short timer = GestationTimer(i);
+        if (timer >= 0)
+            SetGestationTimer(i, --timer); // count down for reproduction.
+
+        int choices = 0;
+        if (s == WatorGrid.FISH)
+            choices = FishChoices(x, y);
+        else if (s == WatorGrid.SHARK)
+            choices = SharkChoices(x, y, i);
+
+        while (choices != 0)
+        {
+            // choose the cell to move into.
+            int choice = (int)(r.NextFloat() * Integer.bitCount(choices));
+            int dir = Neighborhood.NthDirection(choices, choice);
+            long chosen = Neighbor(x, y, dir);
+
+            // When claiming, somebody else may have the chosen cell, or
+            // may have changed it since we chose it.  Choose again.
+            if (!TryClaim(chosen))
+            {
+                choices &= ~(1<<dir);
+                continue;
+            }
+            if (IsClaiming() && !CanMoveInto(s, i, chosen))
+            {
+                Release(chosen);
+                choices &= ~(1<<dir);
+                continue;
+            }
+
+            // Eat whatever is in the chosen cell
+            byte eaten = Species(chosen);
+            if (s == WatorGrid.SHARK)
+                SharkEat(i, eaten);
+
+            // Either reproduce or move into the chosen cell.
+            long here = i;
+            if (timer < 0 &&
+                r.NextFloat() > 0.1 &&
+                CanReproduce(s, i))
+            {
+                Reproduce(s, i, chosen, r);
+                SetGestationTimer(i, Gestation(i));
+                Became(population, eaten, Species(chosen));
+                if (itsEvents != null)
+                    itsEvents.Born(EventCell(i), dir, Species(chosen), Starvation(chosen));
+            }
+            else
+            {
+                Move(i, chosen);
+                here = chosen;
+                Became(population, eaten, WatorGrid.ALGAE); // and we left algae.
+                if (itsEvents != null)
+                    itsEvents.Moved(EventCell(i), dir);
+            }
+            CellChanged(chosen);
+            CellChanged(i);
+
+            if (s == WatorGrid.SHARK)
+                SharkProcessTic(here, population);
+            Release(chosen);
+            return;
+        }
+
+        if (s == WatorGrid.SHARK)
+            SharkProcessTic(i, population);
+        else if (s == WatorGrid.CORAL)
+            CoralProcessTic(x, y, i, r, population);
+    }
+
+    // Can the animal at i still move into c?  Only a question when
+    // claiming, since otherwise nothing changes between choosing a cell
+    // and moving into it.
+    private boolean CanMoveInto(byte s, long i, long c)
+    {
+        byte there = Species(c);
+        if (there == WatorGrid.ALGAE)
+            return true;
+        return s == WatorGrid.SHARK &&
+               (there == WatorGrid.FISH ||
+                (there == WatorGrid.SHARK && Starvation(i) > Starvation(c)));
+    }
+
+    private boolean CanReproduce(byte s, long i)
+    {
+        if (s == WatorGrid.SHARK)
+            return MealCount(i) > 1 && MealAge(itsTick, LastMealTick(i)) <= 2;
+        return s == WatorGrid.FISH;
+    }
+
+    private void Reproduce(byte s, long parent, long c, WatorRandom r)
+    {
+        if (s == WatorGrid.FISH)
+        {
+            if (r.NextDouble() < 0.99995)
+                NewFish(c, Gestation(parent));
+            else
+                NewCoral(c, r);
+        }
+        else
+        {
+            // See Shark.Reproduce for the mutation rules.
+            int delta = (int)(r.NextGaussian()/2.8);
+            int g = Gestation(parent) + delta;
+            int st = Starvation(parent) + delta;
+            if (g<1) g=1;
+            SetMealCount(parent, (byte)0);
+            NewShark(c, g, st);
+        }
+    }
+
+    // Newborns are stamped with today's tick, so that they wait until
+    // tomorrow for their first turn.
+    void NewFish(long i, int g)
+    {
+        SetSpecies(i, WatorGrid.FISH);
+        SetStamp(i, (byte)(itsTick & 1));
+        SetGestation(i, (short)g);
+        SetGestationTimer(i, (short)g);
+    }
+
+    void NewShark(long i, int g, int s)
+    {
+        SetSpecies(i, WatorGrid.SHARK);
+        SetStamp(i, (byte)(itsTick & 1));
+        SetGestation(i, (short)g);
+        SetGestationTimer(i, (short)g);
+        SetStarvation(i, (short)s);
+        SetStarvationTimer(i, (short)s);
+        SetLastMealTick(i, 0);
+        SetMealCount(i, (byte)0);
+    }
+
+    private void NewCoral(long i, WatorRandom r)
+    {
+        SetSpecies(i, WatorGrid.CORAL);
+        SetStamp(i, (byte)(itsTick & 1));
+        SetGestation(i, (short)0);
+        SetGestationTimer(i, (short)0);
+        int life = 300;
+        life += r.NextGaussian() * (life / 5);
+        SetLifeTime(i, (short)life);
+        SetVenom(i, .9f);
+    }
+
+    //---------------------------
+    // Fish
+    //---------------------------
+
+    // Fish can move into any adjacent algae.  Returns the directions
+    // they can go, one bit each; see Fish.GetCellChoices.
+    int FishChoices(int x, int y)
+    {
+        int choices = 0;
+        for (int d=0; d<4; d++)
+            if (Species(Neighbor(x, y, d)) == WatorGrid.ALGAE)
+                choices |= 1<<d;
+        return choices;
+    }
+
+    //---------------------------
+    // Sharks
+    //---------------------------
+
+    // See Shark.GetCellChoices.  Eat if we can; otherwise follow the
+    // fish; otherwise school with the other sharks; otherwise wander.
+    int SharkChoices(int x, int y, long i)
+    {
+        int choices = 0;
+        short starvation = Starvation(i);
+
+        for (int d=0; d<8; d++)
+        {
+            long c = Neighbor(x, y, d);
+            byte s = Species(c);
+            if (s == WatorGrid.FISH ||
+                (s == WatorGrid.SHARK && starvation > Starvation(c)))
+                choices |= 1<<d;
+        }
+
+        if (choices == 0)
+            for (int d=0; d<8; d++)
+                if (Near(x, y, d, WatorGrid.FISH))
+                    choices |= 1<<d;
+
+        if (choices == 0)
+            for (int d=0; d<8; d++)
+                if (Near(x, y, d, WatorGrid.SHARK))
+                    choices |= 1<<d;
+
+        if (choices == 0)
+            for (int d=0; d<8; d++)
+                if (Species(Neighbor(x, y, d)) == WatorGrid.ALGAE)
+                    choices |= 1<<d;
+
+        return choices;
+    }
+
+    // Shark.fishNear and Shark.sharkNear.  Is the cell in direction dir
+    // from x,y empty, with one of the given species next to it?
+    private boolean Near(int x, int y, int dir, byte species)
+    {
+        if (Species(Neighbor(x, y, dir)) != WatorGrid.ALGAE)
+            return false;
+        int cx = itsNeighborhood.NeighborX(x, dir);
+        int cy = itsNeighborhood.NeighborY(y, dir);
+        for (int d=0; d<8; d++)
+            if (Species(Neighbor(cx, cy, d)) == species)
+                return true;
+        return false;
+    }
+
+    private void SharkEat(long i, byte loser)
+    {
+        if (loser == WatorGrid.FISH || loser == WatorGrid.SHARK)
+        {
+            SetStarvationTimer(i, Starvation(i));
+            SetLastMealTick(i, (int)itsTick); // the low bits; see MealAge.
+            byte meals = MealCount(i);
+            if (meals < Byte.MAX_VALUE)
+                SetMealCount(i, (byte)(meals + 1));
+        }
+    }
+
+    private void SharkProcessTic(long i, long population[])
+    {
+        short timer = (short)(StarvationTimer(i) - 1);
+        SetStarvationTimer(i, timer);
+        if (timer < 0)
+        {
+            SetSpecies(i, WatorGrid.ALGAE);
+            Became(population, WatorGrid.SHARK, WatorGrid.ALGAE);
+            CellChanged(i);
+            if (itsEvents != null)
+                itsEvents.Died(EventCell(i), WatorEvents.STARVED);
+        }
+    }
+
+    //---------------------------
+    // Coral
+    //---------------------------
+
+    // See Coral.ProcessTic.  Just as there, a coral that dies, of old age
+    // or of being crowded or lonely, stops there; dead coral don't sting.
+    private void CoralProcessTic(int x, int y, long i, WatorRandom r,
+                                 long population[])
+    {
+        long north = Neighbor(x, y, Neighborhood.NORTH);
+        long south = Neighbor(x, y, Neighborhood.SOUTH);
+        long east  = Neighbor(x, y, Neighborhood.EAST);
+        long west  = Neighbor(x, y, Neighborhood.WEST);
+
+        short life = (short)(LifeTime(i) - 1);
+        SetLifeTime(i, life);
+        if (life <= 0) // time to die
+        {
+            SetSpecies(i, WatorGrid.ALGAE);
+            Became(population, WatorGrid.CORAL, WatorGrid.ALGAE);
+            CellChanged(i);
+            if (itsEvents != null)
+                itsEvents.Died(EventCell(i), WatorEvents.OLD_AGE);
+
+            // Now make neighboring coral sick.
+            Infect(north, r);
+            Infect(south, r);
+            Infect(east, r);
+            Infect(west, r);
+            return;
+        }
+
+        byte na = Species(north);
+        byte sa = Species(south);
+        byte ea = Species(east);
+        byte wa = Species(west);
+
+        if ((na == WatorGrid.CORAL && sa == WatorGrid.CORAL &&
+             ea == WatorGrid.CORAL && wa == WatorGrid.CORAL) ||
+            (na == WatorGrid.ALGAE && sa == WatorGrid.ALGAE &&
+             ea == WatorGrid.ALGAE && wa == WatorGrid.ALGAE))
+        {
+            SetSpecies(i, WatorGrid.ALGAE);
+            Became(population, WatorGrid.CORAL, WatorGrid.ALGAE);
+            CellChanged(i);
+            if (itsEvents != null)
+                itsEvents.Died(EventCell(i), na == WatorGrid.CORAL ? WatorEvents.CROWDED
+                                                                   : WatorEvents.LONELY);
+            return;
+        }
+
+        // Determine if we can poison a nearby fish and turn
+        // it into coral.
+        float venom = Venom(i);
+        if (r.NextDouble() > (1 - venom))
+        {
+            if (na == WatorGrid.FISH && r.NextDouble() > .7) Sting(north, r, population);
+            if (sa == WatorGrid.FISH && r.NextDouble() > .7) Sting(south, r, population);
+            if (ea == WatorGrid.FISH && r.NextDouble() > .7) Sting(east, r, population);
+            if (wa == WatorGrid.FISH && r.NextDouble() > .7) Sting(west, r, population);
+        }
+
+        // decrease effectivness of venom
+        SetVenom(i, venom * .9f);
+    }
+
+    private void Infect(long c, WatorRandom r)
+    {
+        if (!TryClaim(c))
+            return;
+        if (Species(c) == WatorGrid.CORAL)
+        {
+            SetLifeTime(c, (short)(5 + (int)r.NextGaussian()*5));
+            if (itsEvents != null)
+                itsEvents.Infected(EventCell(c));
+        }
+        Release(c);
+    }
+
+    private void Sting(long c, WatorRandom r, long population[])
+    {
+        if (!TryClaim(c))
+            return;
+        if (Species(c) == WatorGrid.FISH) // it may have swum away.
+        {
+            NewCoral(c, r);
+            Became(population, WatorGrid.FISH, WatorGrid.CORAL);
+            CellChanged(c);
+            if (itsEvents != null)
+                itsEvents.Stung(EventCell(c));
+        }
+        Release(c);
+    }
+
+    //---------------------------
+    // Mutating
+    //---------------------------
+
+    // The mutations are package visible for the benchmarks.
+    void MutateAlgae()
+    {
+        int x = (int)(rand.NextFloat()*itsWidth);
+        int y = (int)(rand.NextFloat()*itsHeight);
+        long i = Index(x, y);
+        if (Species(i) == WatorGrid.ALGAE)
+        {
+            NewFish(i, fishGestation);
+            Became(itsPopulation, WatorGrid.ALGAE, WatorGrid.FISH);
+            CellChanged(i);
+            if (itsEvents != null)
+                itsEvents.Mutated(EventCell(i), WatorGrid.FISH, 0);
+        }
+    }
+
+    void MutateFish()
+    {
+        int x = (int)(rand.NextFloat()*itsWidth);
+        int y = (int)(rand.NextFloat()*itsHeight);
+        long i = Index(x, y);
+        if (Species(i) == WatorGrid.FISH)
+        {
+            NewShark(i, sharkGestation, sharkStarvation);
+            Became(itsPopulation, WatorGrid.FISH, WatorGrid.SHARK);
+            CellChanged(i);
+            if (itsEvents != null)
+                itsEvents.Mutated(EventCell(i), WatorGrid.SHARK, sharkStarvation);
+        }
+    }
+}
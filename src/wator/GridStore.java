@@ -0,0 +1,172 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to keep the cells of a WatorOcean off the heap.
+// Modified: the layout of a cell moved into CellStore.
+
+package wator;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+// GridStore
+// The cells of a WatorOcean, kept outside the Java heap, in direct or
+// memory mapped ByteBuffers.  The garbage collector never sees them, so
+// a world of billions of cells needs only a small heap, and never makes
+// the collector wait while it walks the grid.
+//
+// Every cell has room in the store, numbered row by row, as in WatorGrid.
+// A ByteBuffer can't be much bigger than two gigabytes, so the records are
+// kept in buffers of a gigabyte each, and a cell's number says which
+// buffer it is in, and where.  See CellStore for the layout of a cell.
+//
+// Direct buffers count against -XX:MaxDirectMemorySize, which is the size
+// of the heap unless it is set.  Given a file instead, the store maps it,
+// and the operating system pages the world in and out as it is used; so
+// the world can be bigger than the memory of the machine.
+
+class GridStore extends CellStore
+{
+    private static final int SHIFT = 26;                // 2^26 cells, 1GB,
+    private static final long MASK = (1L << SHIFT) - 1; // to a buffer.
+
+    private int itsWidth;
+    private long itsCells;
+    private ByteBuffer itsBuffers[];
+    private FileChannel itsChannel = null;
+
+    // A store of width by height cells, all zero, in direct buffers.
+    GridStore(int width, int height)
+    {
+        itsWidth = width;
+        itsCells = (long)width * height;
+        itsBuffers = new ByteBuffer[Buffers(itsCells)];
+        for (int b=0; b<itsBuffers.length; b++)
+            itsBuffers[b] = ByteBuffer.allocateDirect((int)BytesIn(b))
+                                      .order(ByteOrder.nativeOrder());
+    }
+
+    // Or in the named file, which is replaced.
+    GridStore(int width, int height, String fileName) throws IOException
+    {
+        itsWidth = width;
+        itsCells = (long)width * height;
+        itsBuffers = new ByteBuffer[Buffers(itsCells)];
+        itsChannel = FileChannel.open(Paths.get(fileName),
+                                      StandardOpenOption.CREATE,
+                                      StandardOpenOption.TRUNCATE_EXISTING,
+                                      StandardOpenOption.READ,
+                                      StandardOpenOption.WRITE);
+        for (int b=0; b<itsBuffers.length; b++)
+            itsBuffers[b] = itsChannel.map(FileChannel.MapMode.READ_WRITE,
+                                           ((long)b << SHIFT) * RECORD, BytesIn(b))
+                                      .order(ByteOrder.nativeOrder());
+    }
+
+    private static int Buffers(long cells)
+    {
+        return (int)((cells + MASK) >>> SHIFT);
+    }
+
+    // The size of buffer b; only the last may be short.
+    private long BytesIn(int b)
+    {
+        return Math.min(1L << SHIFT, itsCells - ((long)b << SHIFT)) * RECORD;
+    }
+
+    long GetCells() {return itsCells;}
+
+    // Let go of the buffers.  A mapped file is left as it is.
+    void Close() throws IOException
+    {
+        itsBuffers = new ByteBuffer[0];
+        if (itsChannel != null)
+            itsChannel.close();
+    }
+
+    // Set every cell to zero: empty.
+    void Clear()
+    {
+        byte zeros[] = new byte[1 << 16];
+        for (ByteBuffer b : itsBuffers)
+        {
+            b.clear();
+            while (b.hasRemaining())
+                b.put(zeros, 0, Math.min(zeros.length, b.remaining()));
+            b.clear();
+        }
+    }
+
+    long Index(int x, int y) {return (long)y * itsWidth + x;}
+    int XOf(long cell)       {return (int)(cell % itsWidth);}
+    int YOf(long cell)       {return (int)(cell / itsWidth);}
+
+    //---------------------------
+    // Getting and putting the fields of a cell.
+    //---------------------------
+
+    private ByteBuffer BufferOf(long cell)
+    {
+        return itsBuffers[(int)(cell >>> SHIFT)];
+    }
+
+    private static int OffsetOf(long cell, int field)
+    {
+        return (int)(cell & MASK) * RECORD + field;
+    }
+
+    byte GetByte(long cell, int field)
+    {
+        return BufferOf(cell).get(OffsetOf(cell, field));
+    }
+
+    void PutByte(long cell, int field, byte v)
+    {
+        BufferOf(cell).put(OffsetOf(cell, field), v);
+    }
+
+    short GetShort(long cell, int field)
+    {
+        return BufferOf(cell).getShort(OffsetOf(cell, field));
+    }
+
+    void PutShort(long cell, int field, short v)
+    {
+        BufferOf(cell).putShort(OffsetOf(cell, field), v);
+    }
+
+    int GetInt(long cell, int field)
+    {
+        return BufferOf(cell).getInt(OffsetOf(cell, field));
+    }
+
+    void PutInt(long cell, int field, int v)
+    {
+        BufferOf(cell).putInt(OffsetOf(cell, field), v);
+    }
+
+    float GetFloat(long cell, int field)
+    {
+        return BufferOf(cell).getFloat(OffsetOf(cell, field));
+    }
+
+    void PutFloat(long cell, int field, float v)
+    {
+        BufferOf(cell).putFloat(OffsetOf(cell, field), v);
+    }
+
+    // Copy the whole record of one cell into another.
+    void Copy(long from, long to)
+    {
+        ByteBuffer f = BufferOf(from);
+        ByteBuffer t = BufferOf(to);
+        int fp = OffsetOf(from, 0);
+        int tp = OffsetOf(to, 0);
+        t.putLong(tp, f.getLong(fp));
+        t.putLong(tp+8, f.getLong(fp+8));
+    }
+}
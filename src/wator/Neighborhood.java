@@ -0,0 +1,147 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that finding a neighbor no longer allocates a Cell or
+// does modulo arithmetic.
+// Modified: moved into the package wator.
+
+package wator;
+
+// Neighborhood
+// This is the one place that knows how the wator torus wraps around.  It
+// is built once, for a given width and height, and after that every
+// question about adjacency is answered by reading a table.
+//
+// The eight directions are numbered.  Note that, as it always has been in
+// Wator, East is toward smaller x and West toward larger x.  North is
+// toward smaller y.
+//
+// For WatorEngine the Neighborhood also owns the Cells: one for every
+// position in the world, made once and shared by everybody.  So asking for
+// the cell to the North of a cell is two array reads, and no garbage.
+
+public class Neighborhood
+{
+    public static final int NORTH      = 0;
+    public static final int SOUTH      = 1;
+    public static final int EAST       = 2;
+    public static final int WEST       = 3;
+    public static final int NORTH_EAST = 4;
+    public static final int NORTH_WEST = 5;
+    public static final int SOUTH_EAST = 6;
+    public static final int SOUTH_WEST = 7;
+
+    // The step in x and y for each direction.  Fish only look in the
+    // first four.
+    public static final int DX[] = { 0, 0,-1, 1,-1, 1,-1, 1};
+    public static final int DY[] = {-1, 1, 0, 0,-1,-1, 1, 1};
+
+    // The direction that points back the way we came.
+    public static final int OPPOSITE[] = {SOUTH, NORTH, WEST, EAST,
+                                          SOUTH_WEST, SOUTH_EAST,
+                                          NORTH_WEST, NORTH_EAST};
+
+    // Given a set of directions, one bit per direction, return the n'th
+    // of them; counting from zero.  This is how animals pick a move
+    // without making a list of the choices.
+    public static int NthDirection(int directions, int n)
+    {
+        for (; n>0; n--)
+            directions &= directions-1; // drop the lowest bit.
+        return Integer.numberOfTrailingZeros(directions);
+    }
+
+    private int itsWidth;
+    private int itsHeight;
+
+    // These tables are one bigger than the world at each end, so that a
+    // coordinate that is one step off the edge can be looked up directly.
+    // itsColumn[x+1] is x wrapped into the world.  itsRow[y+1] is y
+    // wrapped, and itsRowStart[y+1] is the index of the start of that row.
+    private int itsColumn[];
+    private int itsRow[];
+    private int itsRowStart[];
+
+    private Cell itsCells[] = null; // made the first time one is asked for.
+
+    public Neighborhood(int width, int height)
+    {
+        itsWidth = width;
+        itsHeight = height;
+        itsColumn = new int[width+2];
+        itsRow = new int[height+2];
+        itsRowStart = new int[height+2];
+        for (int x=-1; x<=width; x++)
+            itsColumn[x+1] = Wrap(x, width);
+        for (int y=-1; y<=height; y++)
+        {
+            itsRow[y+1] = Wrap(y, height);
+            itsRowStart[y+1] = itsRow[y+1] * width;
+        }
+    }
+
+    private static int Wrap(int v, int size)
+    {
+        if (v >= size) v %= size;
+        else if (v < 0) v = (v%size)+size;
+        return v;
+    }
+
+    public int GetWidth()  {return itsWidth;}
+    public int GetHeight() {return itsHeight;}
+
+    // Index of the cell at x,y, which must already be in the world.
+    public int Index(int x, int y)
+    {
+        return y*itsWidth + x;
+    }
+
+    // Index of the cell at x,y, wherever x and y are.
+    public int WrappedIndex(int x, int y)
+    {
+        return Wrap(y, itsHeight)*itsWidth + Wrap(x, itsWidth);
+    }
+
+    // The neighbor of x,y in the given direction.
+    public int Neighbor(int x, int y, int dir)
+    {
+        return itsRowStart[y+1+DY[dir]] + itsColumn[x+1+DX[dir]];
+    }
+
+    // The x and y of the neighbor of x,y in the given direction.
+    public int NeighborX(int x, int dir) {return itsColumn[x+1+DX[dir]];}
+    public int NeighborY(int y, int dir) {return itsRow[y+1+DY[dir]];}
+
+    //---------------------------
+    // Cells, for WatorEngine.
+    //---------------------------
+
+    public Cell GetCell(int x, int y)
+    {
+        return Cells()[Index(x,y)];
+    }
+
+    public Cell GetWrappedCell(int x, int y)
+    {
+        return Cells()[WrappedIndex(x,y)];
+    }
+
+    public Cell Neighbor(Cell c, int dir)
+    {
+        return Cells()[Neighbor(c.GetX(), c.GetY(), dir)];
+    }
+
+    private Cell[] Cells()
+    {
+        if (itsCells == null)
+        {
+            itsCells = new Cell[itsWidth*itsHeight];
+            for (int y=0; y<itsHeight; y++)
+                for (int x=0; x<itsWidth; x++)
+                    itsCells[Index(x,y)] = new Cell(x,y);
+        }
+        return itsCells;
+    }
+}
@@ -0,0 +1,165 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that Populate no longer guesses at cells until it
+// finds an empty one.
+
+package wator;
+
+import java.util.*;
+
+// Placement
+// Decides where Populate puts the starting fish and sharks.  It is told
+// how many of each there should be -- either as counts, or as densities --
+// and the pattern of cells they may go in.
+//
+// Populate used to pick a cell at random, and pick again if the cell was
+// already taken.  That gets slower and slower as the world fills up; the
+// last fish in a full world could take millions of guesses.  Instead,
+// Choose makes a list of all the cells the pattern includes, and shuffles
+// just the front of it, one cell for each animal: a partial Fisher-Yates
+// shuffle.  Each cell chosen is swapped out of the way of the next choice,
+// so no cell is ever chosen twice and no choice is ever wasted.
+//
+// That is the best way when there are only a few animals to place.  When
+// there are many, the swaps jump all over a big array, and every one of
+// them misses the cache.  So for a crowded world, Choose walks through the
+// cells in order instead, and decides about each one as it comes: with
+// R cells left, and F fish and S sharks still to place, a cell gets a fish
+// with chance F/R, a shark with chance S/R, or else nothing.  That places
+// exactly the right number of each, every arrangement is as likely as any
+// other, and the memory is read and written in order.  (This is selection
+// sampling, from Knuth.)
+//
+// Both WatorEngine and WatorGrid keep a Placement.  Its arrays are kept
+// too, and reused every time the world is populated.
+
+class Placement
+{
+    // Making the list of cells is the only part that takes time in
+    // proportion to the size of the world.  Above this many cells it is
+    // done in parallel.
+    private static final int PARALLEL = 1 << 20;
+
+    private int itsFish = 0;           // counts, used if the densities
+    private int itsSharks = 0;         // are less than zero.
+    private double itsFishDensity = -1;
+    private double itsSharkDensity = -1;
+    private WatorPattern itsPattern = WatorPattern.EVERYWHERE;
+
+    private int itsCells[] = null;     // the cells the pattern includes
+    private int itsChosen[] = null;    // the ones chosen, when selecting
+    private int itsChosenFish = 0;
+    private int itsChosenSharks = 0;
+
+    void SetCounts(int fish, int sharks)
+    {
+        itsFish = fish;
+        itsSharks = sharks;
+        itsFishDensity = itsSharkDensity = -1;
+    }
+
+    // The densities are fractions of the cells that the pattern includes.
+    void SetDensities(double fish, double sharks)
+    {
+        itsFishDensity = fish;
+        itsSharkDensity = sharks;
+    }
+
+    void SetPattern(WatorPattern p)
+    {
+        itsPattern = p;
+    }
+
+    // Choose the cells of a width by height world.  Afterwards, the first
+    // GetFish() entries of the returned array are where the fish go, and
+    // the GetSharks() entries after those are where the sharks go; no two
+    // the same.  Ask for more animals than there are cells, and you get as
+    // many as fit, fish first.
+    int[] Choose(final int width, final int height, WatorRandom r)
+    {
+        int cells = width*height;
+        if (itsCells == null || itsCells.length != cells)
+            itsCells = new int[cells];
+        boolean everywhere = itsPattern == WatorPattern.EVERYWHERE;
+        int n = everywhere ? cells : ListCells(width, height);
+
+        int fish = itsFishDensity < 0 ? itsFish
+                                      : (int)Math.round(itsFishDensity * n);
+        int sharks = itsSharkDensity < 0 ? itsSharks
+                                         : (int)Math.round(itsSharkDensity * n);
+        itsChosenFish = Math.max(0, Math.min(fish, n));
+        itsChosenSharks = Math.max(0, Math.min(sharks, n - itsChosenFish));
+
+        int chosen = itsChosenFish + itsChosenSharks;
+        if (chosen >= n/64)
+            return Select(n, everywhere, r);
+
+        if (everywhere)
+            ListCells(width, height);
+        for (int k=0; k<chosen; k++)
+        {
+            int j = k + r.NextInt(n - k);
+            int t = itsCells[k];
+            itsCells[k] = itsCells[j];
+            itsCells[j] = t;
+        }
+        return itsCells;
+    }
+
+    // Selection sampling over the first n of itsCells; or, everywhere,
+    // over all the cells, without bothering to list them.  The fish and
+    // the sharks each come out in the order of their cells.
+    private int[] Select(int n, boolean everywhere, WatorRandom r)
+    {
+        if (itsChosen == null || itsChosen.length != itsCells.length)
+            itsChosen = new int[itsCells.length];
+        int fish = itsChosenFish;
+        int sharks = itsChosenSharks;
+        int f = 0;
+        int s = itsChosenFish;
+        for (int k=0; k<n && fish+sharks > 0; k++)
+        {
+            int u = r.NextInt(n - k);
+            if (u < fish)
+            {
+                itsChosen[f++] = everywhere ? k : itsCells[k];
+                fish--;
+            }
+            else if (u < fish+sharks)
+            {
+                itsChosen[s++] = everywhere ? k : itsCells[k];
+                sharks--;
+            }
+        }
+        return itsChosen;
+    }
+
+    int GetFish()   {return itsChosenFish;}
+    int GetSharks() {return itsChosenSharks;}
+
+    // Put the index of every cell the pattern includes into itsCells, in
+    // order.  Returns how many there are.
+    private int ListCells(final int width, final int height)
+    {
+        final int cells[] = itsCells;
+        if (itsPattern == WatorPattern.EVERYWHERE)
+        {
+            if (cells.length >= PARALLEL)
+                Arrays.parallelSetAll(cells, i -> i);
+            else
+                for (int i=0; i<cells.length; i++)
+                    cells[i] = i;
+            return cells.length;
+        }
+
+        int n = 0;
+        for (int y=0; y<height; y++)
+            for (int x=0; x<width; x++)
+                if (itsPattern.Includes(x, y, width, height))
+                    cells[n++] = y*width + x;
+        return n;
+    }
+}
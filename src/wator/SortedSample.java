@@ -0,0 +1,158 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that a big WatorOcean with a few animals in it is
+// populated in the time it takes to place them.
+
+package wator;
+
+// SortedSample
+// Chooses k of the numbers 0 to n-1, every set of k as likely as any
+// other, and gives them back one at a time, in increasing order.
+//
+// Selection sampling (see Placement) draws a random number for every one
+// of the n, which for a 65536x65536 ocean is four billion of them, however
+// few animals there are.  This is Vitter's Method D (J. S. Vitter, "An
+// Efficient Algorithm for Sequential Random Sampling", 1987), which
+// instead draws how far it is to the next number chosen: a few random
+// numbers for each of the k, and nothing for the rest.  It needs no memory
+// for the numbers chosen, so k can be as big as it likes.
+//
+// Once there are fewer than ALPHA numbers left for each one still to be
+// chosen, skipping is hardly cheaper than stepping, and it goes on with
+// Method A, which steps.
+
+class SortedSample
+{
+    private static final int ALPHA = 13;
+
+    private long itsLeft;        // numbers still to choose,
+    private long itsN;           // from this many,
+    private long itsCurrent = -1; // after this one.
+    private double itsV;         // carried from one skip to the next.
+    private boolean itsStepping = false; // with Method A, from now on.
+    private WatorRandom itsRandom;
+
+    SortedSample(long k, long n, WatorRandom r)
+    {
+        itsLeft = Math.max(0, Math.min(k, n));
+        itsN = n;
+        itsRandom = r;
+        if (itsLeft > 0)
+            itsV = Math.exp(Math.log(Unit()) / itsLeft);
+    }
+
+    // The next number chosen, or -1 when they have all been given.
+    long Next()
+    {
+        if (itsLeft == 0)
+            return -1;
+        long s;
+        if (itsLeft == 1)
+            s = (long)(itsN * itsV);
+        else if (!itsStepping && (long)ALPHA * itsLeft < itsN)
+            s = SkipD();
+        else
+        {
+            itsStepping = true; // itsV is no good to Method D after this.
+            s = SkipA();
+        }
+        s = Math.min(s, itsN - itsLeft); // against rounding.
+        itsCurrent += s + 1;
+        itsN -= s + 1;
+        itsLeft--;
+        return itsCurrent;
+    }
+
+    // A random number greater than zero, and no greater than one.
+    private double Unit()
+    {
+        return 1.0 - itsRandom.NextDouble();
+    }
+
+    // How many to skip before the next one chosen: Method D.  The names
+    // are Vitter's.  X is drawn from a distribution close to the skip's,
+    // and kept or not by comparing the two.  The V of a skip that is kept
+    // is used again for the next.
+    private long SkipD()
+    {
+        long n = itsLeft;
+        long N = itsN;
+        double nreal = n;
+        double Nreal = N;
+        double ninv = 1.0 / nreal;
+        double nmin1inv = 1.0 / (nreal - 1.0);
+        long qu1 = N - n + 1;
+        double qu1real = qu1;
+        long S;
+        while (true)
+        {
+            double X;
+            while (true)
+            {
+                X = Nreal * (1.0 - itsV);
+                S = (long)X;
+                if (S < qu1)
+                    break;
+                itsV = Math.exp(Math.log(Unit()) * ninv);
+            }
+            double U = Unit();
+            double y1 = Math.exp(Math.log(U * Nreal / qu1real) * nmin1inv);
+            itsV = y1 * (1.0 - X / Nreal) * (qu1real / (qu1real - S));
+            if (itsV <= 1.0)
+                break; // the quick test says keep it.
+
+            double y2 = 1.0;
+            double top = Nreal - 1.0;
+            double bottom;
+            long limit;
+            if (n - 1 > S)
+            {
+                bottom = Nreal - nreal;
+                limit = N - S;
+            }
+            else
+            {
+                bottom = Nreal - S - 1.0;
+                limit = qu1;
+            }
+            for (long t=N-1; t>=limit; t--)
+            {
+                y2 = (y2 * top) / bottom;
+                top -= 1.0;
+                bottom -= 1.0;
+            }
+            if (Nreal / (Nreal - X) >= y1 * Math.exp(Math.log(y2) * nmin1inv))
+            {
+                itsV = Math.exp(Math.log(Unit()) * nmin1inv);
+                break; // the exact test says keep it.
+            }
+            itsV = Math.exp(Math.log(Unit()) * ninv);
+        }
+        return S;
+    }
+
+    // How many to skip: Method A.  The chance that the next one is skipped
+    // too is worked out as it goes.
+    private long SkipA()
+    {
+        double V = itsRandom.NextDouble();
+        double top = itsN - itsLeft;
+        double Nreal = itsN;
+        long S = 0;
+        double quot = top / Nreal;
+        while (quot > V)
+        {
+            S++;
+            top -= 1.0;
+            Nreal -= 1.0;
+            quot = quot * top / Nreal;
+        }
+        // The last one is chosen from whatever is left, with a fresh V.
+        if (itsLeft == 2)
+            itsV = Unit();
+        return S;
+    }
+}
@@ -0,0 +1,194 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to keep the alarms of sleeping animals, instead of a
+// PriorityQueue.
+// Modified: alarms can be saved; see WatorEngine.Save.
+
+package wator;
+
+import java.io.IOException;
+import java.util.*;
+
+// TimerWheel
+// The alarms of the sleeping animals of a WatorEngine: which animal must be
+// woken on which tick.
+//
+// A wheel is a ring of slots, one for each of the next 64 ticks.  Setting
+// an alarm drops the animal into the slot for its tick, and every tick the
+// slot that has come round is emptied out.  There is nothing to sort, so
+// both take the same short time however many alarms are set.
+//
+// Alarms more than 64 ticks away go on a second wheel, whose slots are 64
+// ticks wide; and so on, up a few wheels.  Whenever a slot of one wheel
+// comes round, its alarms are dropped down into the wheel below, where
+// they are sorted out more finely.  (This is the hierarchical timing wheel
+// of Varghese and Lauck.)  Coral set alarms a few hundred ticks off, so
+// most alarms are moved down once or twice before they go off.
+//
+// An alarm that is no longer wanted is not taken out of its slot.  The
+// animal remembers the tick of the one alarm it still wants, in
+// itsAlarmTick; any other alarm of its is just dropped when it is found.
+
+class TimerWheel
+{
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int WHEELS = 4; // 2^24 ticks, over three days at
+                                         // 60 ticks a second.
+
+    private Slot itsSlots[][] = new Slot[WHEELS][SLOTS];
+    private Slot itsSpare = new Slot();
+    private Slot itsDue = new Slot();
+    private long itsNow = 0; // the last tick rung.
+
+    // The alarms in a slot.  Kept in arrays, which are reused, so that
+    // setting an alarm doesn't usually make any garbage.
+    private static class Slot
+    {
+        int itsSize = 0;
+        long itsTicks[] = new long[8];
+        Animal itsAnimals[] = new Animal[8];
+
+        void Add(long tick, Animal a)
+        {
+            if (itsSize == itsTicks.length)
+            {
+                itsTicks = Arrays.copyOf(itsTicks, itsSize*2);
+                itsAnimals = Arrays.copyOf(itsAnimals, itsSize*2);
+            }
+            itsTicks[itsSize] = tick;
+            itsAnimals[itsSize++] = a;
+        }
+
+        void Clear()
+        {
+            Arrays.fill(itsAnimals, 0, itsSize, null);
+            itsSize = 0;
+        }
+    }
+
+    TimerWheel()
+    {
+        for (int w=0; w<WHEELS; w++)
+            for (int s=0; s<SLOTS; s++)
+                itsSlots[w][s] = new Slot();
+    }
+
+    // Forget every alarm, and start again at the given tick.
+    void Clear(long now)
+    {
+        for (int w=0; w<WHEELS; w++)
+            for (int s=0; s<SLOTS; s++)
+                itsSlots[w][s].Clear();
+        itsDue.Clear();
+        itsNow = now;
+    }
+
+    // Wake a on the given tick, which had better be after the last one
+    // rung; if it isn't, a is woken on the next one.
+    void Set(long tick, Animal a)
+    {
+        tick = Math.max(tick, itsNow+1);
+        if (a.itsAlarmTick == tick)
+            return; // it's already set.
+        a.itsAlarmTick = tick;
+        Drop(tick, a);
+    }
+
+    private void Drop(long tick, Animal a)
+    {
+        long delta = tick - itsNow;
+        int w = 0;
+        while (w < WHEELS-1 && delta >= 1L << (BITS*(w+1)))
+            w++;
+        itsSlots[w][(int)(tick >> (BITS*w)) & MASK].Add(tick, a);
+    }
+
+    // Ring the alarms for the given tick, which must be the one after the
+    // last tick rung.  Returns how many animals are due; Due(i) gives them.
+    int Ring(long tick)
+    {
+        itsDue.Clear();
+        itsNow = tick;
+
+        // When a slot of the lowest wheel comes round to zero, the next
+        // slot of the wheel above is due to be spread out over it; and so
+        // on up.
+        for (int w=1; w<WHEELS && (tick & ((1L << (BITS*w)) - 1)) == 0; w++)
+            Cascade(w, (int)(tick >> (BITS*w)) & MASK);
+
+        Slot s = itsSlots[0][(int)tick & MASK];
+        for (int i=0; i<s.itsSize; i++)
+            if (IsWanted(s.itsTicks[i], s.itsAnimals[i]))
+                itsDue.Add(s.itsTicks[i], s.itsAnimals[i]);
+        s.Clear();
+        return itsDue.itsSize;
+    }
+
+    Animal Due(int i) {return itsDue.itsAnimals[i];}
+
+    // Move the alarms of a slot down into the wheels below it.  The slot
+    // is swapped for an empty one first, since an alarm that is still a
+    // long way off may be dropped straight back into the same place.
+    private void Cascade(int w, int slot)
+    {
+        Slot s = itsSlots[w][slot];
+        itsSlots[w][slot] = itsSpare;
+        for (int i=0; i<s.itsSize; i++)
+            if (IsWanted(s.itsTicks[i], s.itsAnimals[i]))
+                Drop(s.itsTicks[i], s.itsAnimals[i]);
+        s.Clear();
+        itsSpare = s;
+    }
+
+    // For snapshots.  Every alarm that is still wanted, and whose animal
+    // is still in the world, is written, in the order it will be found.
+    // (The order the alarms of a tick are rung in is the order the animals
+    // go back on the list in; so it matters.)
+    void Write(WatorSnapshot s, WatorEngine e) throws IOException
+    {
+        s.PutLong(itsNow);
+        for (int w=0; w<WHEELS; w++)
+            for (int slot=0; slot<SLOTS; slot++)
+            {
+                Slot sl = itsSlots[w][slot];
+                int n = 0;
+                for (int i=0; i<sl.itsSize; i++)
+                    if (IsSaved(sl.itsTicks[i], sl.itsAnimals[i], e))
+                        n++;
+                s.PutInt(n);
+                for (int i=0; i<sl.itsSize; i++)
+                    if (IsSaved(sl.itsTicks[i], sl.itsAnimals[i], e))
+                    {
+                        s.PutLong(sl.itsTicks[i]);
+                        s.PutInt(e.IndexOf(sl.itsAnimals[i]));
+                    }
+            }
+    }
+
+    void Read(WatorSnapshot s, WatorEngine e) throws IOException
+    {
+        Clear(s.GetLong());
+        for (int w=0; w<WHEELS; w++)
+            for (int slot=0; slot<SLOTS; slot++)
+                for (int n=s.GetInt(); n>0; n--)
+                {
+                    long tick = s.GetLong();
+                    itsSlots[w][slot].Add(tick, e.AnimalAt(s.GetInt()));
+                }
+    }
+
+    private static boolean IsSaved(long tick, Animal a, WatorEngine e)
+    {
+        return IsWanted(tick, a) && e.GetCell(a.GetCell()) == a;
+    }
+
+    private static boolean IsWanted(long tick, Animal a)
+    {
+        return a.itsAlarmTick == tick;
+    }
+}
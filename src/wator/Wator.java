@@ -0,0 +1,208 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+//
+// Wator is based upon A. K. Dewdney's "Computer Recrecations" article in the
+// December, 1984 issue of Scientific American.
+//
+// Modifications:
+//   The simulation now lives in WatorEngine, which has no AWT dependency.
+//   The applet is just a window onto the engine; it draws the cells that
+//   the engine reports as changed.
+//   The applet parameter "world" may be set to "grid" to run WatorGrid,
+//   the array based world, instead of WatorEngine.
+//   The applet parameter "seed" makes the world the same every time.
+//   Everything is now in the package wator.
+//   Cells are drawn into a WatorRaster, and the rows that changed are
+//   copied to the screen once a frame.
+//   A WatorClock runs the world, at the rate given by the applet parameter
+//   "ticks" (chronons a second; 0, the default, is as fast as possible),
+//   and draws at most "fps" frames a second (30 by default).  Clicking on
+//   the applet pauses the world, and clicking again resumes it.
+//   The applet parameters "fish" and "sharks" are the fractions of the
+//   cells that start with fish and sharks, and "pattern" names the
+//   WatorPattern they start in.
+//   The applet parameter "snapshot" names a file.  If it is there, the
+//   world is loaded from it instead of being populated; and the world is
+//   saved into it whenever the applet stops.  Stopping and starting the
+//   applet no longer starts the world over.
+//   If the applet parameter "metrics" is set, the world is given a
+//   WatorMetrics, and where its time went is printed whenever the applet
+//   stops.
+//   The applet parameter "world" may also be "ocean", for WatorOcean,
+//   which keeps its cells off the heap.
+//   Or "sparse", for a WatorOcean that keeps only the chunks of the world
+//   that have animals in them.
+
+package wator;
+
+import java.applet.Applet;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.*;
+
+public class Wator extends Applet
+{
+    // public variables
+    public  int cellSize = 2;   // The pixel size of a single cell
+
+    // other variables.
+    private WatorWorld itsWorld;       // The wator world.
+    private WatorRaster itsRaster;     // The picture of the world.
+    private WatorClock itsClock = null; // Runs the world.
+    private boolean isPopulated = false; // or loaded from a snapshot.
+
+    // Constructor, does nothing.
+    public Wator()
+    {
+    }
+
+    //---------------------------
+    // Applet control functions.
+    //---------------------------
+
+    // Initialize the applet.
+    public void init()
+    {
+        Rectangle bounds = getBounds();
+        int width = bounds.width / cellSize;
+        int height = bounds.height / cellSize;
+        String snapshot = getParameter("snapshot");
+        if (snapshot != null && new File(snapshot).exists())
+        {
+            try
+            {
+                itsWorld = WatorSnapshot.Load(snapshot);
+                width = itsWorld.GetWidth();
+                height = itsWorld.GetHeight();
+                isPopulated = true;
+            }
+            catch (IOException e)
+            {
+                System.out.println("Can't load " + snapshot + ": " + e.getMessage());
+            }
+        }
+        if (itsWorld == null)
+        {
+            if ("grid".equals(getParameter("world")))
+                itsWorld = new WatorGrid(width, height);
+            else if ("ocean".equals(getParameter("world")))
+                itsWorld = new WatorOcean(width, height);
+            else if ("sparse".equals(getParameter("world")))
+                itsWorld = WatorOcean.Sparse(width, height);
+            else
+                itsWorld = new WatorEngine(width, height);
+            String seed = getParameter("seed");
+            if (seed != null)
+                itsWorld.SetSeed(Long.parseLong(seed));
+        }
+        itsWorld.SetStartDensities(DoubleParameter("fish", 0),
+                                   DoubleParameter("sharks", 0));
+        String pattern = getParameter("pattern");
+        if (pattern != null && WatorPattern.Named(pattern) != null)
+            itsWorld.SetStartPattern(WatorPattern.Named(pattern));
+        itsRaster = new WatorRaster(width, height, cellSize,
+                                    getBackground().getRGB() & 0xFFFFFF);
+        itsWorld.SetObserver(itsRaster);
+        if (getParameter("metrics") != null)
+            itsWorld.SetMetrics(new WatorMetrics());
+
+        addMouseListener(new MouseAdapter()
+        {
+            public void mouseClicked(MouseEvent e)
+            {
+                if (itsClock == null)
+                    return;
+                if (itsClock.IsPaused())
+                    itsClock.Resume();
+                else
+                    itsClock.Pause();
+            }
+        });
+    }
+
+    // Start the applet.  Also called when the applet resumes after
+    // being stopped.  The first time, it sets the world to the starting
+    // condition (unless it came from a snapshot); then it starts the
+    // clock.
+    public void start()
+    {
+        synchronized (itsWorld)
+        {
+            if (!isPopulated)
+                itsWorld.Populate();
+            isPopulated = true;
+            itsRaster.Redraw(itsWorld);
+        }
+
+        // Each frame copies whatever changed onto the screen.  It is
+        // called on the clock's thread, between chronons.
+        Runnable frame = new Runnable()
+        {
+            public void run()
+            {
+                Graphics g = getGraphics();
+                if (g != null)
+                {
+                    itsRaster.Blit(g);
+                    g.dispose();
+                }
+            }
+        };
+        itsClock = new WatorClock(itsWorld, frame);
+        itsClock.SetTicksPerSecond(DoubleParameter("ticks", 0));
+        itsClock.SetFramesPerSecond(DoubleParameter("fps", 30));
+        itsClock.Start();
+        System.out.println("started");
+    }
+
+    // Called when the applet is told to stop.  This happens when the
+    // browser changes web pages or something like that.  I shut down
+    // the clock so that CPU resources are no longer used up.
+    public void stop()
+    {
+        itsClock.Shutdown();
+        itsClock = null;
+        if (itsWorld.GetMetrics() != null)
+            System.out.print(itsWorld.GetMetrics().Report());
+        String snapshot = getParameter("snapshot");
+        if (snapshot != null)
+        {
+            try
+            {
+                itsWorld.Save(snapshot);
+            }
+            catch (IOException e)
+            {
+                System.out.println("Can't save " + snapshot + ": " + e.getMessage());
+            }
+        }
+        System.out.println("Stopped");
+    }
+
+    private double DoubleParameter(String name, double otherwise)
+    {
+        String value = getParameter(name);
+        return value == null ? otherwise : Double.parseDouble(value);
+    }
+
+    // Called when part of the window has been damaged by a menu or
+    // another window.  The raster already has the whole picture, so
+    // this is one drawImage.
+    public void paint(Graphics g)
+    {
+        synchronized (itsWorld)
+        {
+            itsRaster.BlitAll(g);
+        }
+    }
+
+    // The raster covers the whole applet, so there is no need to clear
+    // the background first.
+    public void update(Graphics g)
+    {
+        paint(g);
+    }
+}
@@ -0,0 +1,332 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to run a world too big for one process.
+
+package wator;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// WatorBands
+// Runs a synchronous WatorGrid as several processes, each with a band of
+// its rows, so that no process needs the memory of the whole world.
+//
+// Every band is a WatorGrid of its own rows, with WatorGrid.HALO rows of
+// the bands above and below it; see WatorGrid.SetBand.  After every
+// chronon a band sends its top HALO rows to the band above, and its bottom
+// HALO rows to the band below, and gets theirs back into its halo.  The
+// bands are in a ring, since the world is a torus; the band above the
+// first is the last.  Animals that cross from one band to the next need
+// nothing special: the band they arrive in works out their arrival from
+// its halo, just as the band they left works out their leaving.
+//
+// The synchronous mode rolls its random numbers from the seed, the tick
+// and the cell of the whole world, so the bands, between them, come out
+// exactly as a single synchronous grid would, given the same snapshot.
+//
+// A run starts from a snapshot of a grid, and ends with another.  The
+// first process (the coordinator) writes the header of the new snapshot,
+// and then starts a process for every band, on this machine.  Each band
+// reads its rows (and its halo) from the first snapshot, runs, and writes
+// its own rows into the second.  The bands talk to each other, and to the
+// coordinator, over sockets on the loopback interface.  Each chronon they
+// tell the coordinator their populations, which it adds up.
+//
+//   java wator.WatorBands <from> <to> <chronons> <bands> [every]
+
+public class WatorBands
+{
+    private String itsFrom;
+    private String itsTo;
+    private long itsChronons;
+    private int itsBands;
+    private WatorPopulationListener itsPopulationListener = null;
+
+    public WatorBands(String from, String to, long chronons, int bands)
+    {
+        itsFrom = from;
+        itsTo = to;
+        itsChronons = chronons;
+        itsBands = bands;
+    }
+
+    // Told the populations of the whole world at the end of every chronon.
+    public void SetPopulationListener(WatorPopulationListener l)
+    {
+        itsPopulationListener = l;
+    }
+
+    //---------------------------
+    // The coordinator.
+    //---------------------------
+
+    // Run the bands, and wait for them to finish.
+    public void Run() throws IOException, InterruptedException
+    {
+        WatorSnapshot from = WatorSnapshot.Open(itsFrom, false);
+        int width = from.GetWidth();
+        int height = from.GetHeight();
+        long tick = from.GetTick();
+        try
+        {
+            if (from.GetKind() != WatorSnapshot.GRID)
+                throw new IOException(itsFrom + " is not a snapshot of a WatorGrid");
+            if (height / itsBands < WatorGrid.HALO)
+                throw new IOException("a band must be at least " + WatorGrid.HALO + " rows high");
+
+            // The new snapshot is its header, and room for the bands.
+            WatorSnapshot to = WatorSnapshot.Create(itsTo, WatorSnapshot.GRID, width, height,
+                                                    tick + itsChronons, from.GetSeed(),
+                                                    from.GetRandomState());
+            to.Reserve(WatorSnapshot.HEADER + (long)width * height * WatorGrid.CELL_BYTES);
+            to.Close();
+        }
+        finally
+        {
+            from.Close();
+        }
+
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        int port = ((InetSocketAddress)server.getLocalAddress()).getPort();
+        Process bands[] = new Process[itsBands];
+        SocketChannel control[] = new SocketChannel[itsBands];
+        try
+        {
+            String java = System.getProperty("java.home") + File.separator + "bin" +
+                          File.separator + "java";
+            for (int b=0; b<itsBands; b++)
+                bands[b] = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                              "wator.WatorBands", "band",
+                                              Integer.toString(b), Integer.toString(itsBands),
+                                              Integer.toString(port), itsFrom, itsTo,
+                                              Long.toString(itsChronons))
+                    .inheritIO().start();
+
+            // Each band tells us who it is, and where it listens; then we
+            // tell it where the band below it listens.  A band that dies
+            // before it calls would keep us waiting forever, so we look.
+            server.configureBlocking(false);
+            int ports[] = new int[itsBands];
+            for (int b=0; b<itsBands; b++)
+            {
+                SocketChannel c;
+                while ((c = server.accept()) == null)
+                {
+                    for (int d=0; d<itsBands; d++)
+                        if (!bands[d].isAlive())
+                            throw new IOException("band " + d + " failed to start");
+                    Thread.sleep(10);
+                }
+                ByteBuffer hello = Read(c, 8);
+                int band = hello.getInt();
+                control[band] = c;
+                ports[band] = hello.getInt();
+            }
+            for (int b=0; b<itsBands; b++)
+            {
+                ByteBuffer below = ByteBuffer.allocate(4);
+                below.putInt(ports[(b+1) % itsBands]).flip();
+                Write(control[b], below);
+            }
+
+            // Then every chronon, their populations.
+            for (long t=1; t<=itsChronons; t++)
+            {
+                long population[] = new long[4];
+                for (int b=0; b<itsBands; b++)
+                {
+                    ByteBuffer p = Read(control[b], 32);
+                    for (int s=0; s<4; s++)
+                        population[s] += p.getLong();
+                }
+                if (itsPopulationListener != null)
+                    itsPopulationListener.Populations(tick + t, population[0], population[1],
+                                                      population[2], population[3]);
+            }
+
+            for (int b=0; b<itsBands; b++)
+                if (bands[b].waitFor() != 0)
+                    throw new IOException("band " + b + " failed");
+        }
+        finally
+        {
+            // If anything went wrong, the others would wait forever.
+            for (Process p : bands)
+                if (p != null)
+                    p.destroy();
+            for (SocketChannel c : control)
+                if (c != null)
+                    c.close();
+            server.close();
+        }
+    }
+
+    //---------------------------
+    // A band.
+    //---------------------------
+
+    private static void Band(int band, int bands, int coordinatorPort,
+                             String from, String to, long chronons)
+        throws IOException, InterruptedException, ExecutionException
+    {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        SocketChannel coordinator = SocketChannel.open(new InetSocketAddress(loopback, coordinatorPort));
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(loopback, 0));
+        ByteBuffer hello = ByteBuffer.allocate(8);
+        hello.putInt(band).putInt(((InetSocketAddress)server.getLocalAddress()).getPort()).flip();
+        Write(coordinator, hello);
+
+        // Read our rows while the others start up.
+        WatorSnapshot s = WatorSnapshot.Open(from, false);
+        int width = s.GetWidth();
+        int height = s.GetHeight();
+        int firstRow = (int)((long)band * height / bands);
+        int limitRow = (int)((long)(band+1) * height / bands);
+        WatorGrid grid = new WatorGrid(width, limitRow - firstRow + 2*WatorGrid.HALO);
+        try
+        {
+            grid.SetBand(height, firstRow);
+            grid.ReadBand(s);
+        }
+        finally
+        {
+            s.Close();
+        }
+
+        // The band below us listens where the coordinator says; the band
+        // above us connects to us.  (With one band, we are both.)
+        int belowPort = Read(coordinator, 4).getInt();
+        SocketChannel below = SocketChannel.open(new InetSocketAddress(loopback, belowPort));
+        SocketChannel above = server.accept();
+        server.close();
+
+        // Sending is done on threads of its own, so that every band can
+        // send to both of its neighbors while it reads from both of them.
+        int halo = WatorGrid.HALO;
+        int first = grid.GetOwnedFirst();
+        int limit = grid.GetOwnedLimit();
+        ByteBuffer toAbove = ByteBuffer.allocateDirect(grid.RowBytes(halo));
+        ByteBuffer toBelow = ByteBuffer.allocateDirect(grid.RowBytes(halo));
+        ByteBuffer fromAbove = ByteBuffer.allocateDirect(grid.RowBytes(halo));
+        ByteBuffer fromBelow = ByteBuffer.allocateDirect(grid.RowBytes(halo));
+        ByteBuffer population = ByteBuffer.allocate(32);
+        ExecutorService senders = Executors.newFixedThreadPool(2);
+        try
+        {
+            for (long t=0; t<chronons; t++)
+            {
+                grid.Chronon();
+
+                toAbove.clear();
+                grid.PutRows(toAbove, first, halo);
+                toAbove.flip();
+                toBelow.clear();
+                grid.PutRows(toBelow, limit - halo, halo);
+                toBelow.flip();
+                Future<?> a = senders.submit(() -> {Write(above, toAbove); return null;});
+                Future<?> b = senders.submit(() -> {Write(below, toBelow); return null;});
+
+                fromAbove.clear();
+                ReadFully(above, fromAbove);
+                grid.GetRows(fromAbove, first - halo, halo);
+                fromBelow.clear();
+                ReadFully(below, fromBelow);
+                grid.GetRows(fromBelow, limit, halo);
+                a.get();
+                b.get();
+
+                population.clear();
+                for (byte species=0; species<4; species++)
+                    population.putLong(grid.GetPopulation(species));
+                population.flip();
+                Write(coordinator, population);
+            }
+        }
+        finally
+        {
+            senders.shutdownNow();
+        }
+
+        s = WatorSnapshot.Open(to, true);
+        try
+        {
+            grid.WriteBand(s);
+        }
+        finally
+        {
+            s.Close();
+        }
+        above.close();
+        below.close();
+        coordinator.close();
+    }
+
+    //---------------------------
+    // Sockets.
+    //---------------------------
+
+    private static void Write(SocketChannel c, ByteBuffer b) throws IOException
+    {
+        while (b.hasRemaining())
+            c.write(b);
+    }
+
+    private static void ReadFully(SocketChannel c, ByteBuffer b) throws IOException
+    {
+        while (b.hasRemaining())
+            if (c.read(b) < 0)
+                throw new EOFException("a neighbor went away");
+        b.flip();
+    }
+
+    private static ByteBuffer Read(SocketChannel c, int bytes) throws IOException
+    {
+        ByteBuffer b = ByteBuffer.allocate(bytes);
+        ReadFully(c, b);
+        return b;
+    }
+
+    // Runs a snapshot of a WatorGrid synchronously, cut into bands, each
+    // in a process of its own, and saves it into another snapshot.  The
+    // populations are printed every so many chronons.
+    //   java wator.WatorBands <from> <to> <chronons> <bands> [every]
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 7 && args[0].equals("band"))
+        {
+            Band(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                 Integer.parseInt(args[3]), args[4], args[5], Long.parseLong(args[6]));
+            return;
+        }
+        if (args.length != 4 && args.length != 5)
+        {
+            System.out.println("usage: java wator.WatorBands from to chronons bands [every]");
+            return;
+        }
+        final long every = args.length == 5 ? Long.parseLong(args[4]) : 0;
+        WatorBands w = new WatorBands(args[0], args[1], Long.parseLong(args[2]),
+                                      Integer.parseInt(args[3]));
+        if (every > 0)
+            w.SetPopulationListener(new WatorPopulationListener()
+            {
+                public void Populations(long tick, long algae, long fish, long sharks, long coral)
+                {
+                    if (tick % every == 0)
+                        System.out.println("tick " + tick + ": " + fish + " fish, " +
+                                           sharks + " sharks, " + coral + " coral");
+                }
+            });
+        long start = System.currentTimeMillis();
+        w.Run();
+        System.out.println(args[2] + " chronons in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
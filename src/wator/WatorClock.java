@@ -0,0 +1,196 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to replace the repaint and yield loop of the applet.
+// Modified: frames are timed, if the world has a WatorMetrics.
+// Modified: the rates and counts are volatile, for other threads.
+
+package wator;
+
+import java.util.concurrent.locks.LockSupport;
+
+// WatorClock
+// Runs a world on a thread of its own, at a steady number of chronons a
+// second, and draws frames at a steady number of frames a second; the two
+// rates have nothing to do with each other.
+//
+// The chronons are on a fixed schedule.  If one is late, the next ones
+// come without a pause until the clock has caught up; but if it falls
+// more than a second behind, it gives up on the chronons it missed.  With
+// no rate at all (zero, the default) the world runs as fast as it can.
+//
+// A frame is drawn after a chronon, when one is due.  Frames are never
+// made up: when the world is too slow for the frame rate, the frames that
+// should have been drawn while it was busy are just skipped.  So the
+// screen never holds the world back by more than one frame in every
+// frame period.
+//
+// Each chronon, and each frame, happens while holding the world's
+// monitor.  Anybody else who looks at the world (or at a raster that it
+// draws into) while the clock is running should synchronize on it too.
+
+public class WatorClock implements Runnable
+{
+    private static final long SECOND = 1000000000L; // in nanoseconds
+
+    private WatorWorld itsWorld;
+    private Runnable itsFrame;         // draws a frame; may be null.
+    // The periods may be set, and the counts read, from other threads;
+    // only the clock's own thread changes the counts.
+    private volatile long itsTickPeriod = 0;    // nanoseconds; zero is flat out.
+    private volatile long itsFramePeriod = SECOND / 30;
+    private Thread itsThread = null;
+    private volatile boolean itsPaused = false;
+    private volatile boolean itsShutdown = false;
+    private volatile long itsFrames = 0;        // drawn since Start.
+    private volatile long itsSkippedFrames = 0; // due, but not drawn, since Start.
+
+    public WatorClock(WatorWorld world, Runnable frame)
+    {
+        itsWorld = world;
+        itsFrame = frame;
+    }
+
+    // Zero (or less) means as fast as possible.  May be changed while the
+    // clock is running.
+    public void SetTicksPerSecond(double ticks)
+    {
+        itsTickPeriod = ticks > 0 ? (long)(SECOND / ticks) : 0;
+    }
+
+    public void SetFramesPerSecond(double frames)
+    {
+        itsFramePeriod = frames > 0 ? (long)(SECOND / frames) : SECOND;
+    }
+
+    public long GetFrames()        {return itsFrames;}
+    public long GetSkippedFrames() {return itsSkippedFrames;}
+
+    public synchronized void Start()
+    {
+        if (itsThread != null)
+            return;
+        itsShutdown = false;
+        itsThread = new Thread(this, "wator clock");
+        itsThread.setDaemon(true);
+        itsThread.start();
+    }
+
+    // Stop between chronons, and wait for Resume.
+    public void Pause()
+    {
+        itsPaused = true;
+    }
+
+    public void Resume()
+    {
+        itsPaused = false;
+        Wake();
+    }
+
+    public boolean IsPaused() {return itsPaused;}
+
+    // Stop for good.  Returns when the last chronon has finished.
+    public void Shutdown()
+    {
+        Thread t;
+        synchronized (this)
+        {
+            t = itsThread;
+            itsThread = null;
+        }
+        if (t == null)
+            return;
+        itsShutdown = true;
+        LockSupport.unpark(t);
+        boolean interrupted = false;
+        while (t.isAlive())
+        {
+            try
+            {
+                t.join();
+            }
+            catch (InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private synchronized void Wake()
+    {
+        if (itsThread != null)
+            LockSupport.unpark(itsThread);
+    }
+
+    public void run()
+    {
+        long nextTick = System.nanoTime();
+        long nextFrame = nextTick;
+        while (!itsShutdown)
+        {
+            if (itsPaused)
+            {
+                while (itsPaused && !itsShutdown)
+                    LockSupport.park(this);
+                // Don't try to make up for the time spent paused.
+                nextTick = nextFrame = System.nanoTime();
+                continue;
+            }
+
+            long period = itsTickPeriod;
+            if (period > 0)
+            {
+                long now = System.nanoTime();
+                if (now - nextTick > SECOND)
+                    nextTick = now; // hopelessly behind; start over.
+                if (SleepUntil(nextTick))
+                    continue;       // paused, or shut down, while asleep.
+                nextTick += period;
+            }
+
+            synchronized (itsWorld)
+            {
+                itsWorld.Chronon();
+            }
+
+            long now = System.nanoTime();
+            if (itsFrame != null && now - nextFrame >= 0)
+            {
+                synchronized (itsWorld)
+                {
+                    WatorMetrics m = itsWorld.GetMetrics();
+                    if (m != null)
+                        m.FrameStarted();
+                    itsFrame.run();
+                    if (m != null)
+                        m.FrameEnded();
+                }
+                itsFrames++;
+                long framePeriod = itsFramePeriod; // once, in case it changes.
+                long behind = (now - nextFrame) / framePeriod;
+                itsSkippedFrames += behind;
+                nextFrame += (behind+1) * framePeriod;
+            }
+        }
+    }
+
+    // Sleep until the given time.  Returns true if woken early because the
+    // clock was paused or shut down.
+    private boolean SleepUntil(long time)
+    {
+        for (;;)
+        {
+            if (itsPaused || itsShutdown)
+                return true;
+            long left = time - System.nanoTime();
+            if (left <= 0)
+                return false;
+            LockSupport.parkNanos(this, left);
+        }
+    }
+}
@@ -0,0 +1,603 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: the simulation was moved out of the Wator applet into this
+// class so that it can run without AWT.
+// Modified: all random numbers come from one seeded WatorRandom.
+// Modified: empty cells share one Algae; see Vacate.
+// Modified: sleeping animals are woken by SetCell, or by their alarms.
+// Modified: the animals take their turns from an AnimalList.
+// Modified: the alarms of sleeping animals are kept by a TimerWheel.
+// Modified: can be saved and loaded; see WatorSnapshot.
+// Modified: tells a WatorEvents what happens; see WatorEventLog.
+// Modified: counts the populations in SetCell.
+// Modified: times its chronons, if it has a WatorMetrics.
+// Modified: the breeding parameters can be set; see WatorSweep.
+// Modified: moved into the package wator.
+
+package wator;
+
+import java.io.IOException;
+import java.util.*;
+
+// WatorEngine
+// This is the wator world itself: the map, the list of living animals and
+// the clock.  It knows nothing about windows or graphics.  Whoever wants
+// to watch the world change (the applet, for instance) registers a
+// WatorObserver.  With no observer, the engine runs headless; which is
+// how we run long batch experiments.  WatorGrid is the same world kept
+// in flat arrays instead of objects.
+
+public class WatorEngine implements WatorWorld
+{
+    // initial parameters of Wator.
+    private int fishGestation = 3;
+    private int sharkGestation = 4;
+    private int sharkStarvation = 3;
+    private Placement itsPlacement = new Placement(); // starting animals.
+
+    // public variables
+    public  int watorWidth;     // The width of the Wator world in cells.
+    public  int watorHeight;    // The Height of the Wator world in cells.
+    public  Neighborhood itsNeighborhood; // Who is next to whom.
+
+    // other variables.  Some are public for efficiency's sake.
+    private Animal world[][];          // The wator map
+    AnimalList itsAnimals = new AnimalList(); // The living creatures.
+    private boolean itsShuffle = false;  // take turns in random order?
+    private int itsSortPeriod = 0;       // chronons between sorts; 0 never.
+    public  long itsTick = 0;          // counts the number of turns.
+    public  WatorRandom rand;          // a random number used all over.
+    private long itsSeed;              // where rand started.  See SetSeed.
+    private WatorObserver itsObserver = null; // who is watching, if anyone.
+    WatorEvents itsEvents = null;      // who is listening, if anyone.
+    private WatorPopulationListener itsPopulationListener = null;
+    WatorMetrics itsMetrics = null;    // timing the chronons, if anyone.
+
+    // How many cells hold each species, indexed by WatorGrid's species.
+    // SetCell keeps these up to date.
+    private long itsPopulation[] = new long[4];
+
+    // The census.  For every cell, the number of fish and the number of
+    // sharks in the eight cells around it.  SetCell keeps these up to date
+    // as the world changes, so a shark can ask if there are fish near a
+    // cell without looking.
+    private byte itsFishAround[];
+    private byte itsSharksAround[];
+
+    // The sleepers.  See Animal.Sleep.  For every cell, the directions in
+    // which the animal asleep in it is watching, or zero if it's awake;
+    // and the alarms the sleepers have set.  An alarm may outlive its
+    // animal, or its animal's sleep; so when it goes off, we make sure
+    // there is still a sleeping animal to wake.
+    private byte itsAsleep[];
+    private TimerWheel itsAlarms = new TimerWheel();
+
+    public WatorEngine(int width, int height)
+    {
+        watorWidth = width;
+        watorHeight = height;
+        itsNeighborhood = new Neighborhood(width, height);
+        world = new Animal[watorWidth][watorHeight];
+        itsFishAround = new byte[width*height];
+        itsSharksAround = new byte[width*height];
+        itsAsleep = new byte[width*height];
+        SetSeed(WatorRandom.NewSeed());
+    }
+
+    // Every random number in the world comes from rand, so a world that
+    // is given the same seed before it is populated will do exactly the
+    // same thing every time.
+    public void SetSeed(long seed)
+    {
+        itsSeed = seed;
+        rand = new WatorRandom(seed);
+    }
+
+    public long GetSeed() {return itsSeed;}
+
+    // See Placement.  With none of these, the world starts empty.
+    public void SetBreeding(int fishGestation, int sharkGestation, int sharkStarvation)
+    {
+        this.fishGestation = fishGestation;
+        this.sharkGestation = sharkGestation;
+        this.sharkStarvation = sharkStarvation;
+    }
+
+    public void SetStartPopulations(int fish, int sharks)
+    {
+        itsPlacement.SetCounts(fish, sharks);
+    }
+
+    public void SetStartDensities(double fish, double sharks)
+    {
+        itsPlacement.SetDensities(fish, sharks);
+    }
+
+    public void SetStartPattern(WatorPattern p)
+    {
+        itsPlacement.SetPattern(p);
+    }
+
+    // Normally the animals take their turns in the order of the list,
+    // which is the order they joined it in, jumbled up by the animals
+    // that have left.  Shuffled, they take their turns in a new random
+    // order every chronon.
+    public void SetShuffle(boolean shuffle)
+    {
+        itsShuffle = shuffle;
+    }
+
+    // Sort the list by cell every so many chronons, so that the animals
+    // that take their turns one after another are neighbors in memory.
+    // Zero means never.  Sorting is no use if the turns are shuffled.
+    public void SetSortPeriod(int chronons)
+    {
+        itsSortPeriod = chronons;
+    }
+
+    // There is at most one observer.  Pass null to run headless.
+    public void SetObserver(WatorObserver o)
+    {
+        itsObserver = o;
+    }
+
+    // There is at most one of these, too.  The animals tell it what they
+    // do, if it isn't null.
+    public void SetEvents(WatorEvents e)
+    {
+        itsEvents = e;
+    }
+
+    public void SetPopulationListener(WatorPopulationListener l)
+    {
+        itsPopulationListener = l;
+    }
+
+    public long GetPopulation(byte species)
+    {
+        return itsPopulation[species];
+    }
+
+    public void SetMetrics(WatorMetrics m)
+    {
+        itsMetrics = m;
+    }
+
+    public WatorMetrics GetMetrics() {return itsMetrics;}
+
+    // Set and Get the wator world by using Cells.  Every change to the
+    // world goes through SetCell, so that the census and the populations
+    // stay right, and so that any sleeping animal next to the change
+    // wakes up.
+    public void SetCell(Cell c, Animal a)
+    {
+        int x = c.GetX();
+        int y = c.GetY();
+        Animal old = world[x][y];
+        world[x][y]=a;
+        if (old instanceof Fish)
+        {
+            Count(x, y, itsFishAround, -1);
+            itsPopulation[WatorGrid.FISH]--;
+        }
+        else if (old instanceof Shark)
+        {
+            Count(x, y, itsSharksAround, -1);
+            itsPopulation[WatorGrid.SHARK]--;
+        }
+        else if (old instanceof Coral)
+            itsPopulation[WatorGrid.CORAL]--;
+        else
+            itsPopulation[WatorGrid.ALGAE]--;
+        if (a instanceof Fish)
+        {
+            Count(x, y, itsFishAround, 1);
+            itsPopulation[WatorGrid.FISH]++;
+        }
+        else if (a instanceof Shark)
+        {
+            Count(x, y, itsSharksAround, 1);
+            itsPopulation[WatorGrid.SHARK]++;
+        }
+        else if (a instanceof Coral)
+            itsPopulation[WatorGrid.CORAL]++;
+        else
+            itsPopulation[WatorGrid.ALGAE]++;
+
+        // Whoever was here is gone, asleep or not.
+        itsAsleep[itsNeighborhood.Index(x, y)] = 0;
+        for (int d=0; d<8; d++)
+        {
+            // The sleeper next door sees this cell in the opposite
+            // direction; is that one it cares about?
+            int n = itsNeighborhood.Neighbor(x, y, d);
+            if ((itsAsleep[n] & 1<<Neighborhood.OPPOSITE[d]) != 0)
+            {
+                Animal sleeper = world[itsNeighborhood.NeighborX(x, d)]
+                                      [itsNeighborhood.NeighborY(y, d)];
+                if (sleeper.WakesFor(a))
+                {
+                    itsAsleep[n] = 0;
+                    sleeper.Wake(this);
+                    if (itsMetrics != null)
+                        itsMetrics.Woke();
+                }
+            }
+        }
+    }
+
+    // Empty the cell c, by putting the Algae into it.
+    public void Vacate(Cell c)
+    {
+        SetCell(c, Algae.ALGAE);
+    }
+
+    // Animal.Sleep tells us that a has gone to sleep.
+    void Asleep(Animal a)
+    {
+        Cell c = a.GetCell();
+        itsAsleep[itsNeighborhood.Index(c.GetX(), c.GetY())] = (byte)a.Watches();
+        SetAlarm(a);
+    }
+
+    // Set a's alarm, if it wants one, for the tick a.Alarm says.
+    void SetAlarm(Animal a)
+    {
+        long alarm = a.Alarm();
+        if (alarm > 0)
+            itsAlarms.Set(alarm, a);
+    }
+
+    // Wake the sleepers whose alarms go off on this tick, in time for
+    // their turns.
+    private void RingAlarms()
+    {
+        int n = itsAlarms.Ring(itsTick);
+        for (int i=0; i<n; i++)
+        {
+            Animal a = itsAlarms.Due(i);
+            Cell c = a.GetCell();
+            if (a.IsAsleep() && GetCell(c) == a)
+            {
+                itsAsleep[itsNeighborhood.Index(c.GetX(), c.GetY())] = 0;
+                a.Wake(this);
+                if (itsMetrics != null)
+                    itsMetrics.Woke();
+            }
+        }
+    }
+
+    private void Count(int x, int y, byte census[], int delta)
+    {
+        for (int d=0; d<8; d++)
+            census[itsNeighborhood.Neighbor(x, y, d)] += delta;
+    }
+
+    // How many fish, or sharks, are there in the cells around c?
+    public int FishAround(Cell c)
+    {
+        return itsFishAround[itsNeighborhood.Index(c.GetX(), c.GetY())];
+    }
+
+    public int SharksAround(Cell c)
+    {
+        return itsSharksAround[itsNeighborhood.Index(c.GetX(), c.GetY())];
+    }
+
+    public Animal GetCell(Cell c)
+    {
+        return world[c.GetX()][c.GetY()];
+    }
+
+    public Animal GetCell(int x, int y)
+    {
+        return world[x][y];
+    }
+
+    public int  GetWidth()  {return watorWidth;}
+    public int  GetHeight() {return watorHeight;}
+    public long GetTick()   {return itsTick;}
+
+    public int GetColor(int x, int y)
+    {
+        return world[x][y].GetColor();
+    }
+
+    // Animals call this whenever they change a cell.  If nobody is
+    // watching, it costs nothing but the test.
+    public void CellChanged(Cell c)
+    {
+        if (itsObserver != null)
+            itsObserver.CellChanged(c.GetX(), c.GetY(), GetCell(c).GetColor());
+    }
+
+    // Run the world for the given number of chronons.
+    public void Run(long chronons)
+    {
+        for (long i=0; i<chronons; i++)
+            Chronon();
+    }
+
+    // This is the high level loop that deals with a single turn (Chronon)
+    // of Wator.
+    public void Chronon()
+    {
+        WatorMetrics m = itsMetrics;
+        if (m != null)
+            m.ChrononStarted();
+
+        itsTick++; // keep track of time. We use this later.
+        long start = WatorMetrics.Start(m);
+        RingAlarms();
+        WatorMetrics.Took(m, WatorMetrics.ALARMS, start);
+
+        if (itsSortPeriod > 0 && itsTick % itsSortPeriod == 0)
+        {
+            start = WatorMetrics.Start(m);
+            itsAnimals.Sort(watorHeight);
+            WatorMetrics.Took(m, WatorMetrics.SORT, start);
+        }
+
+        // Walk through the list of living animals and have them take
+        // their turns.  We use this list so that we don't have to
+        // walk through all the empty spaces in the world array.  The
+        // animals that have been eaten since the snapshot was taken
+        // have left the list, and lose their turns.
+        start = WatorMetrics.Start(m);
+        int n = itsAnimals.Snapshot(itsShuffle ? rand : null);
+        int turns = 0;
+        for (int i=0; i<n; i++)
+        {
+            Animal a = itsAnimals.Turn(i);
+            if (a.IsLinked())
+            {
+                a.Tic(itsTick, this);
+                turns++;
+            }
+        }
+        if (m != null)
+            m.Turns(start, turns);
+
+        // Mutations are opportunistic.  We decide that we are going
+        // to mutate, Then we decide what cell is going to mutate.  And
+        // then, if that cell contains the right kind of animal, we mutate it.
+
+        start = WatorMetrics.Start(m);
+        if (rand.NextFloat() > .95)
+          MutateAlgae();
+
+        if (rand.NextFloat() > .97)
+          MutateFish();
+        WatorMetrics.Took(m, WatorMetrics.MUTATE, start);
+
+        if (itsEvents != null)
+            itsEvents.ChrononEnded(itsTick);
+        if (itsObserver != null)
+            itsObserver.ChrononEnded(itsTick);
+        if (itsPopulationListener != null)
+            itsPopulationListener.Populations(itsTick,
+                                              itsPopulation[WatorGrid.ALGAE],
+                                              itsPopulation[WatorGrid.FISH],
+                                              itsPopulation[WatorGrid.SHARK],
+                                              itsPopulation[WatorGrid.CORAL]);
+        if (m != null)
+            m.ChrononEnded(itsTick);
+    }
+
+    // This function puts the wator world back to its start state.  First it
+    // clears out the entire world.  Then it randomly loads the world with
+    // the specified starting populations of fish and sharks.  Placement
+    // decides where they go.
+    public void Populate()
+    {
+        itsTick = 0;
+        itsAnimals.Clear();
+        Arrays.fill(itsFishAround, (byte)0);
+        Arrays.fill(itsSharksAround, (byte)0);
+        Arrays.fill(itsAsleep, (byte)0);
+        itsAlarms.Clear(0);
+
+        for (int x=0; x<watorWidth; x++)
+            Arrays.fill(world[x], Algae.ALGAE);
+        ClearPopulation();
+
+        int cells[] = itsPlacement.Choose(watorWidth, watorHeight, rand);
+        int fish = itsPlacement.GetFish();
+        int sharks = itsPlacement.GetSharks();
+        for (int k=0; k<fish+sharks; k++)
+        {
+            Cell c = itsNeighborhood.GetCell(cells[k] % watorWidth,
+                                             cells[k] / watorWidth);
+            if (k < fish)
+                SetCell(c, new Fish(c, fishGestation, this));
+            else
+                SetCell(c, new Shark(c, sharkGestation, sharkStarvation, this));
+        }
+    }
+
+    // Every cell holds algae.
+    private void ClearPopulation()
+    {
+        Arrays.fill(itsPopulation, 0);
+        itsPopulation[WatorGrid.ALGAE] = (long)watorWidth * watorHeight;
+    }
+
+  // The mutations are package visible for the benchmarks.
+  void MutateAlgae()
+  {
+    int x = (int)(rand.NextFloat()*watorWidth);
+    int y = (int)(rand.NextFloat()*watorHeight);
+    if (world[x][y] instanceof Algae)
+    {
+      ConvertAlgaeIntoFish(x, y);
+    }
+  }
+
+  void MutateFish()
+  {
+    int x = (int)(rand.NextFloat()*watorWidth);
+    int y = (int)(rand.NextFloat()*watorHeight);
+    if (world[x][y] instanceof Fish)
+    {
+      ConvertFishToShark(x, y);
+    }
+  }
+
+  private void ConvertAlgaeIntoFish(int x, int y)
+  {
+    Cell c = Cell.Normalize(x,y,this);
+    world[x][y].Unlink(this);
+    SetCell(c, new Fish(c, fishGestation, this));
+    CellChanged(c);
+    if (itsEvents != null)
+      itsEvents.Mutated(IndexOf(c), WatorGrid.FISH, 0);
+  }
+
+  private void ConvertFishToShark(int x, int y)
+  {
+    Cell c = Cell.Normalize(x,y,this);
+    world[x][y].Unlink(this);
+    SetCell(c, new Shark(c, sharkGestation, sharkStarvation,this));
+    CellChanged(c);
+    if (itsEvents != null)
+      itsEvents.Mutated(IndexOf(c), WatorGrid.SHARK, sharkStarvation);
+  }
+
+    //---------------------------
+    // Snapshots.  See WatorSnapshot.
+    //
+    // After the header come the species of every cell, in the order of
+    // Neighborhood.Index; then the state of each animal, in the same
+    // order (see Animal.Write); then what every sleeper is watching (all
+    // of itsAsleep); then the alarms (see TimerWheel.Write); and last the
+    // cells of the animals on the list, in the order of the list.  The
+    // census is not saved; putting the animals back counts them again.
+    //---------------------------
+
+    public void Save(String fileName) throws IOException
+    {
+        WatorSnapshot s = WatorSnapshot.Create(fileName, WatorSnapshot.ENGINE,
+                                               watorWidth, watorHeight, itsTick,
+                                               itsSeed, rand.GetState());
+        try
+        {
+            int cells = watorWidth * watorHeight;
+            byte species[] = new byte[cells];
+            for (int i=0; i<cells; i++)
+                species[i] = SpeciesOf(AnimalAt(i));
+            s.PutBytes(species);
+            for (int i=0; i<cells; i++)
+                if (species[i] != WatorGrid.ALGAE)
+                    AnimalAt(i).Write(s);
+            s.PutBytes(itsAsleep);
+            itsAlarms.Write(s, this);
+
+            int order[] = new int[itsAnimals.Size()];
+            for (int k=0; k<order.length; k++)
+                order[k] = IndexOf(itsAnimals.Get(k));
+            s.PutInt(order.length);
+            s.PutInts(order);
+        }
+        finally
+        {
+            s.Close();
+        }
+    }
+
+    // Read what Save wrote, into a new world of the same size.
+    void Read(WatorSnapshot s) throws IOException
+    {
+        SetSeed(s.GetSeed());
+        itsTick = s.GetTick();
+        for (int x=0; x<watorWidth; x++)
+            Arrays.fill(world[x], Algae.ALGAE);
+        ClearPopulation();
+
+        // Making the animals puts them on the list, and coral uses up a
+        // random number or two; all that is put right below.
+        int cells = watorWidth * watorHeight;
+        byte species[] = new byte[cells];
+        s.GetBytes(species);
+        for (int i=0; i<cells; i++)
+        {
+            Cell c = itsNeighborhood.GetCell(i % watorWidth, i / watorWidth);
+            Animal a;
+            if (species[i] == WatorGrid.FISH)
+                a = new Fish(c, fishGestation, this);
+            else if (species[i] == WatorGrid.SHARK)
+                a = new Shark(c, sharkGestation, sharkStarvation, this);
+            else if (species[i] == WatorGrid.CORAL)
+                a = new Coral(c, this);
+            else
+                continue;
+            a.Read(s);
+            SetCell(c, a);
+        }
+
+        s.GetBytes(itsAsleep);
+        for (int i=0; i<cells; i++)
+            if (itsAsleep[i] != 0)
+                AnimalAt(i).SetAsleep(true);
+        itsAlarms.Read(s, this);
+
+        itsAnimals.Clear();
+        int order[] = new int[s.GetInt()];
+        s.GetInts(order);
+        for (int k=0; k<order.length; k++)
+            itsAnimals.Add(AnimalAt(order[k]));
+
+        rand.SetState(s.GetRandomState());
+    }
+
+    static byte SpeciesOf(Animal a)
+    {
+        if (a instanceof Fish)
+            return WatorGrid.FISH;
+        else if (a instanceof Shark)
+            return WatorGrid.SHARK;
+        else if (a instanceof Coral)
+            return WatorGrid.CORAL;
+        return WatorGrid.ALGAE;
+    }
+
+    // The animal in the cell with the given Neighborhood.Index, and back.
+    Animal AnimalAt(int i)
+    {
+        return world[i % watorWidth][i / watorWidth];
+    }
+
+    int IndexOf(Animal a)
+    {
+        return IndexOf(a.GetCell());
+    }
+
+    int IndexOf(Cell c)
+    {
+        return itsNeighborhood.Index(c.GetX(), c.GetY());
+    }
+
+    // Runs a world with no display at all.
+    //   java wator.WatorEngine <width> <height> <chronons> [seed]
+    public static void main(String[] args)
+    {
+        if (args.length != 3 && args.length != 4)
+        {
+            System.out.println("usage: java wator.WatorEngine width height chronons [seed]");
+            return;
+        }
+        WatorEngine w = new WatorEngine(Integer.parseInt(args[0]),
+                                        Integer.parseInt(args[1]));
+        long chronons = Long.parseLong(args[2]);
+        if (args.length == 4)
+            w.SetSeed(Long.parseLong(args[3]));
+        System.out.println("seed " + w.GetSeed());
+        w.Populate();
+        long start = System.currentTimeMillis();
+        w.Run(chronons);
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println(chronons + " chronons in " + elapsed + " ms");
+    }
+}
@@ -0,0 +1,278 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to record a run of the world, so that it can be looked
+// at afterwards with WatorReplay.
+
+package wator;
+
+import java.io.*;
+
+// WatorEventLog
+// Writes every event of a world into a file, as compactly as it can.
+// Give it to the world with SetEvents, run the world, and Close it.
+//
+// The file is a header, and then a record for every chronon.  Every so
+// often there is also a keyframe: what every cell looked like at the end
+// of a chronon.  The first record is always a keyframe, of the world as
+// it was when the log was made; so make the log after Populate (or after
+// WatorSnapshot.Load), and make a new one if the world is populated
+// again.  WatorReplay can start from any keyframe and apply the chronons
+// after it, to see the world as it was at any tick.
+//
+//   header:    int MAGIC, int VERSION (little endian), varint width,
+//              varint height
+//   keyframe:  byte KEYFRAME, varint tick, then a byte for every cell, in
+//              the order of Neighborhood.Index: its CodeOf
+//   chronon:   byte CHRONON, varint tick, varint length, then length
+//              bytes of events
+//
+// An event is a byte, whose low four bits say what happened and whose
+// high four bits are the direction, if there is one; then the cell, as
+// the difference from the cell of the last event in the same chronon;
+// and then, for sharks that are born or mutate, their starvation.  The
+// differences are small, because the animals take their turns more or
+// less in order; so they are written as zigzag varints, seven bits a
+// byte.  Most events take two or three bytes.
+//
+// A chronon's events are collected in an array, and written out all at
+// once at the end; the file is buffered a megabyte at a time.  Nothing
+// here makes an object per event, so the world hardly notices it is being
+// logged.
+
+public class WatorEventLog implements WatorEvents
+{
+    public static final int MAGIC = 0x474F4C57; // "WLOG", little endian
+    public static final int VERSION = 1;
+
+    // Records.
+    static final int KEYFRAME = 1;
+    static final int CHRONON  = 2;
+
+    // Events.
+    static final int MOVED         = 0;
+    static final int FISH_BORN     = 1;
+    static final int SHARK_BORN    = 2;
+    static final int CORAL_BORN    = 3;
+    static final int DIED          = 4; // plus the cause; up to 7.
+    static final int STUNG         = 8;
+    static final int INFECTED      = 9;
+    static final int FISH_SPAWNED  = 10;
+    static final int SHARK_MUTATED = 11;
+
+    // What a cell looks like, in a byte.  Sharks of different starvations
+    // are different colors; that's all anyone can see of them, so that's
+    // all that is kept.  See CodeOf.
+    static final int COLORS[] = {0xFFFFFF, 0x00FF00, 0x0000FF,
+                                 0xFFC800, 0xFF0000, 0x808080,
+                                 0xFF00FF, 0x00FFFF, 0x000000};
+    static final byte SPECIES[] = {WatorGrid.ALGAE, WatorGrid.FISH, WatorGrid.CORAL,
+                                   WatorGrid.SHARK, WatorGrid.SHARK, WatorGrid.SHARK,
+                                   WatorGrid.SHARK, WatorGrid.SHARK, WatorGrid.SHARK};
+    static final byte ALGAE_CODE = 0;
+    static final byte FISH_CODE  = 1;
+    static final byte CORAL_CODE = 2;
+
+    private WatorWorld itsWorld;
+    private OutputStream itsOut;
+    private int itsKeyframePeriod;
+    private long itsLastTick;
+    private byte itsBatch[] = new byte[1 << 16]; // this chronon's events
+    private int itsBatchSize = 0;
+    private int itsLastCell = 0;
+    private byte itsKeyframe[];
+
+    // Log the given world into the named file, with a keyframe every so
+    // many chronons.
+    public WatorEventLog(String fileName, WatorWorld w, int keyframePeriod)
+        throws IOException
+    {
+        itsWorld = w;
+        itsKeyframePeriod = Math.max(keyframePeriod, 1);
+        itsOut = new BufferedOutputStream(new FileOutputStream(fileName), 1 << 20);
+        itsKeyframe = new byte[w.GetWidth() * w.GetHeight()];
+        for (int shift=0; shift<32; shift+=8)
+            itsOut.write(MAGIC >>> shift);
+        for (int shift=0; shift<32; shift+=8)
+            itsOut.write(VERSION >>> shift);
+        WriteVarLong(w.GetWidth());
+        WriteVarLong(w.GetHeight());
+        itsLastTick = w.GetTick();
+        Keyframe();
+    }
+
+    public void Close() throws IOException
+    {
+        itsOut.close();
+    }
+
+    static byte CodeOf(int color)
+    {
+        for (int code=0; code<COLORS.length; code++)
+            if (COLORS[code] == color)
+                return (byte)code;
+        return ALGAE_CODE;
+    }
+
+    static byte CodeOf(byte species, int starvation)
+    {
+        switch (species)
+        {
+            case WatorGrid.FISH:  return FISH_CODE;
+            case WatorGrid.SHARK: return CodeOf(Shark.ColorOf(starvation));
+            case WatorGrid.CORAL: return CORAL_CODE;
+            default:              return ALGAE_CODE;
+        }
+    }
+
+    //---------------------------
+    // WatorEvents
+    //---------------------------
+
+    public void Moved(int from, int dir)
+    {
+        Event(MOVED | dir << 4, from);
+    }
+
+    public void Born(int parent, int dir, byte species, int starvation)
+    {
+        if (species == WatorGrid.SHARK)
+        {
+            Event(SHARK_BORN | dir << 4, parent);
+            PutVarLong(ZigZag(starvation));
+        }
+        else if (species == WatorGrid.CORAL)
+            Event(CORAL_BORN | dir << 4, parent);
+        else
+            Event(FISH_BORN | dir << 4, parent);
+    }
+
+    public void Died(int cell, int cause)
+    {
+        Event(DIED + cause, cell);
+    }
+
+    public void Stung(int cell)
+    {
+        Event(STUNG, cell);
+    }
+
+    public void Infected(int cell)
+    {
+        Event(INFECTED, cell);
+    }
+
+    public void Mutated(int cell, byte species, int starvation)
+    {
+        if (species == WatorGrid.SHARK)
+        {
+            Event(SHARK_MUTATED, cell);
+            PutVarLong(ZigZag(starvation));
+        }
+        else
+            Event(FISH_SPAWNED, cell);
+    }
+
+    // Write the chronon's events out, and a keyframe if one is due.  An
+    // IOException can't be thrown from here, so it is wrapped.
+    public void ChrononEnded(long tick)
+    {
+        if (tick != itsLastTick+1)
+            throw new IllegalStateException("tick " + tick + " follows tick " +
+                                            itsLastTick + "; was the world populated again?");
+        itsLastTick = tick;
+        try
+        {
+            itsOut.write(CHRONON);
+            WriteVarLong(tick);
+            WriteVarLong(itsBatchSize);
+            itsOut.write(itsBatch, 0, itsBatchSize);
+            itsBatchSize = 0;
+            itsLastCell = 0;
+            if (tick % itsKeyframePeriod == 0)
+                Keyframe();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //---------------------------
+    // Encoding
+    //---------------------------
+
+    private void Keyframe() throws IOException
+    {
+        int width = itsWorld.GetWidth();
+        for (int i=0; i<itsKeyframe.length; i++)
+            itsKeyframe[i] = CodeOf(itsWorld.GetColor(i % width, i / width));
+        itsOut.write(KEYFRAME);
+        WriteVarLong(itsLastTick);
+        itsOut.write(itsKeyframe);
+    }
+
+    private void Event(int what, int cell)
+    {
+        if (itsBatchSize + 16 > itsBatch.length)
+            itsBatch = java.util.Arrays.copyOf(itsBatch, itsBatch.length*2);
+        itsBatch[itsBatchSize++] = (byte)what;
+        PutVarLong(ZigZag(cell - itsLastCell));
+        itsLastCell = cell;
+    }
+
+    private static long ZigZag(long n)
+    {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private void PutVarLong(long n)
+    {
+        while ((n & ~0x7FL) != 0)
+        {
+            itsBatch[itsBatchSize++] = (byte)(n | 0x80);
+            n >>>= 7;
+        }
+        itsBatch[itsBatchSize++] = (byte)n;
+    }
+
+    private void WriteVarLong(long n) throws IOException
+    {
+        while ((n & ~0x7FL) != 0)
+        {
+            itsOut.write((int)(n | 0x80) & 0xFF);
+            n >>>= 7;
+        }
+        itsOut.write((int)n);
+    }
+
+    // Records a new grid world, with no display.
+    //   java wator.WatorEventLog <file> <width> <height> <chronons> [keyframe period [seed]]
+    // Three tenths of the cells start with fish, and three hundredths with
+    // sharks.  Look at the file with WatorReplay.
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 4 || args.length > 6)
+        {
+            System.out.println("usage: java wator.WatorEventLog file width height chronons [keyframe period [seed]]");
+            return;
+        }
+        WatorGrid w = new WatorGrid(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        long chronons = Long.parseLong(args[3]);
+        int period = args.length >= 5 ? Integer.parseInt(args[4]) : 100;
+        if (args.length == 6)
+            w.SetSeed(Long.parseLong(args[5]));
+        System.out.println("seed " + w.GetSeed());
+        w.SetStartDensities(.3, .03);
+        w.Populate();
+        WatorEventLog log = new WatorEventLog(args[0], w, period);
+        w.SetEvents(log);
+        long start = System.currentTimeMillis();
+        w.Run(chronons);
+        log.Close();
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println(chronons + " chronons in " + elapsed + " ms");
+    }
+}
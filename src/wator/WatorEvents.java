@@ -0,0 +1,46 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that everything that happens in the world can be
+// recorded; see WatorEventLog.
+
+package wator;
+
+// WatorEvents
+// Like WatorObserver, but told what happened, not just which cells look
+// different now.  A world with a WatorEvents tells it about every move,
+// birth, death, sting, infection and mutation, as it happens.
+//
+// A cell is given as its Neighborhood.Index, y*width + x; and where one
+// animal does something to the cell next to it, as the animal's cell and
+// the Neighborhood direction of the other.  Nothing here makes an object,
+// so a world can tell the events as fast as they come.
+
+public interface WatorEvents
+{
+    // Why something died.
+    public static final int STARVED  = 0; // a shark, with nothing to eat.
+    public static final int OLD_AGE  = 1; // coral.
+    public static final int CROWDED  = 2; // coral, with coral all around.
+    public static final int LONELY   = 3; // coral, with algae all around.
+
+    public void Moved(int from, int dir);
+        // The animal in from moved one step in dir, eating whatever was
+        // there.
+    public void Born(int parent, int dir, byte species, int starvation);
+        // The animal in parent had a baby one step away in dir, which
+        // ate whatever was there.  The species is one of WatorGrid's;
+        // starvation only matters for sharks.
+    public void Died(int cell, int cause);
+        // The animal in cell died of cause, and left algae behind.
+    public void Stung(int cell);
+        // The fish in cell was stung, and turned into coral.
+    public void Infected(int cell);
+        // The coral in cell caught a disease, and will die soon.
+    public void Mutated(int cell, byte species, int starvation);
+        // The algae in cell turned into a fish, or the fish into a shark.
+    public void ChrononEnded(long tick);
+        // That's all for this tick.
+}
@@ -0,0 +1,1416 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added as an alternative to the Animal objects of WatorEngine.
+// Modified: moved into the package wator.
+// Modified: can be saved and loaded; see WatorSnapshot.
+// Modified: tells a WatorEvents what happens, when stepped sequentially.
+// Modified: counts the populations as they change.
+// Modified: times its chronons, if it has a WatorMetrics.
+// Modified: the breeding parameters can be set; see WatorSweep.
+// Modified: can be a band of a bigger world, for WatorBands.
+// Modified: a coral that dies stings no one, as in WatorEngine.
+// Modified: the rules moved into GridRules, to be shared with WatorOcean.
+
+package wator;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// WatorGrid
+// This is the same wator world as WatorEngine, with the same rules, but
+// without any objects.  WatorEngine keeps an Animal (or an Algae) in every
+// cell, and a Cell in every Animal.  For a really big world that is tens
+// of millions of objects.  Here the species of each cell is a byte, and
+// everything an animal needs to remember -- gestation, starvation, meals,
+// the lifetime and venom of coral -- lives in parallel arrays indexed by
+// cell.  When an animal moves, its state is copied from one index to the
+// other.  The rules themselves are in GridRules, which WatorOcean shares;
+// they get at the arrays through our accessors.
+//
+// There is no list of animals.  Each chronon we walk every cell in order.
+// An animal that moves into a cell we have not yet reached must not get
+// a second turn, and a baby must not get a turn on the day it is born.
+// So every animal carries a stamp: the low bit of the tick on which it
+// last had its turn (or was born).  Every living animal is stamped every
+// chronon, so one bit is enough.
+//
+// The world can also be stepped in parallel.  It is cut into tiles, and
+// the tiles are colored like a checkerboard with four colors: even or odd
+// column of tiles, even or odd row of tiles.  Tiles of the same color
+// are never next to each other, so all the tiles of one color can take
+// their turns at the same time on a ForkJoinPool, and then the next
+// color, and so on.  A shark looks two cells away and a move reaches one
+// cell away, so as long as a tile is at least three cells across, two
+// tiles of the same color never touch the same cell.  An animal that
+// moves into a neighboring tile carries its stamp with it, so it does not
+// move again when that tile's turn comes.  There must be an even number
+// of tiles across and down, or the first and last tiles, which are next
+// to each other around the torus, would have the same color.
+//
+// Tiles are no good when the animals crowd into a few of them; the
+// workers with the crowded tiles do all the work while the others wait.
+// So there is a second parallel mode, in which there are no tiles.  The
+// rows are split among the workers by work stealing, and an animal must
+// claim a cell before it changes it.  A claim is a compare-and-set on
+// an AtomicIntegerArray with one entry per cell.  An animal claims its own
+// cell (waiting if it must; whoever holds it never waits for anything),
+// then tries to claim the cell it has chosen.  If that cell is already
+// claimed, or no longer holds what the animal chose it for, the animal
+// forgets that choice and tries another.  Coral tries to claim the cells
+// it stings or infects, and if it can't, that sting or infection just
+// doesn't happen.  Since nobody waits while holding a claim, nobody
+// deadlocks.
+//
+// Both of those modes still depend on the order in which cells are
+// visited.  The synchronous mode (SetSynchronous) does not: every animal
+// looks at yesterday's world, and today's is built in a second set of
+// arrays.  Given the same seed it comes out the same no matter how many
+// threads do the work.  The rules for settling conflicts are described
+// at SyncChronon.
+
+public class WatorGrid extends GridRules implements WatorWorld
+{
+    // The species.  A cell with nothing in it holds algae.
+    public static final byte ALGAE = 0;
+    public static final byte FISH  = 1;
+    public static final byte SHARK = 2;
+    public static final byte CORAL = 3;
+
+    private Placement itsPlacement = new Placement(); // starting animals.
+
+    private long itsSeed;
+    private WatorObserver itsObserver = null;
+    private WatorPopulationListener itsPopulationListener = null;
+    private WatorMetrics itsMetrics = null;
+
+    // Parallel stepping.  With no pool, the world steps sequentially.
+    private ForkJoinPool itsPool = null;
+    private int itsTileSize = 64;
+    int itsProcessors = Runtime.getRuntime().availableProcessors(); // see Threads
+    private int itsColumnEdges[];   // tile column c spans x from edge c to c+1
+    private int itsRowEdges[];      // tile row r spans y from edge r to r+1
+    private int itsTilesOfColor[][]; // tile numbers, by checkerboard color
+    private AtomicIntegerArray itsClaims = null; // non null when claiming.
+
+    // The world, one entry per cell.  Cell x,y is at index y*width+x.
+    private byte  itsSpecies[];
+    private byte  itsStamp[];
+    private short itsGestation[];
+    private short itsGestationTimer[];
+    private short itsStarvation[];      // sharks only
+    private short itsStarvationTimer[]; // sharks only
+    private int   itsLastMealTick[];    // sharks only
+    private byte  itsMealCount[];       // sharks only
+    private short itsLifeTime[];        // coral only
+    private float itsVenom[];           // coral only
+
+    // Synchronous stepping; see SetSynchronous.  The next generation is
+    // built in the itsNext arrays, which are then swapped with the above.
+    private boolean itsSynchronous = false;
+    private byte  itsIntent[];        // where each animal wants to go
+    private byte  itsSharkWinner[];   // which shark gets each cell
+    private byte  itsFishWinner[];    // which fish gets each cell
+    private byte  itsNextSpecies[] = null;
+    private byte  itsNextStamp[];
+    private short itsNextGestation[];
+    private short itsNextGestationTimer[];
+    private short itsNextStarvation[];
+    private short itsNextStarvationTimer[];
+    private int   itsNextLastMealTick[];
+    private byte  itsNextMealCount[];
+    private short itsNextLifeTime[];
+    private float itsNextVenom[];
+
+    // Banding; see SetBand.  Unless this grid is a band of a bigger world,
+    // the world is just this grid, and the grid owns all of its rows.
+    static final int HALO = 5;      // rows of the neighbors above and below.
+    static final int CELL_BYTES = 21; // of a cell, in all the arrays.
+    private int itsWorldHeight;     // the height of the whole world
+    private int itsRowOffset = 0;   // the world's row of our row 0
+    private int itsOwnedFirst = 0;  // our rows that are ours: the rest are
+    private int itsOwnedLimit;      // copies of the neighbors' rows.
+
+    public WatorGrid(int width, int height)
+    {
+        super(width, height);
+        int cells = width * height;
+        itsSpecies = new byte[cells];
+        itsStamp = new byte[cells];
+        itsGestation = new short[cells];
+        itsGestationTimer = new short[cells];
+        itsStarvation = new short[cells];
+        itsStarvationTimer = new short[cells];
+        itsLastMealTick = new int[cells];
+        itsMealCount = new byte[cells];
+        itsLifeTime = new short[cells];
+        itsVenom = new float[cells];
+        itsPopulation[ALGAE] = cells;
+        itsWorldHeight = height;
+        itsOwnedLimit = height;
+        SetSeed(WatorRandom.NewSeed());
+    }
+
+    // See WatorEngine.SetSeed.  The tiles, the claiming workers and the
+    // synchronous mode all get their random numbers from this seed.
+    public void SetSeed(long seed)
+    {
+        itsSeed = seed;
+        rand = new WatorRandom(seed);
+    }
+
+    public long GetSeed() {return itsSeed;}
+
+    // See Placement.  With none of these, the world starts empty.
+    public void SetStartPopulations(int fish, int sharks)
+    {
+        itsPlacement.SetCounts(fish, sharks);
+    }
+
+    public void SetStartDensities(double fish, double sharks)
+    {
+        itsPlacement.SetDensities(fish, sharks);
+    }
+
+    public void SetStartPattern(WatorPattern p)
+    {
+        itsPlacement.SetPattern(p);
+    }
+
+    public int  GetWidth()  {return itsWidth;}
+    public int  GetHeight() {return itsHeight;}
+    public long GetTick()   {return itsTick;}
+
+    public void SetObserver(WatorObserver o)
+    {
+        itsObserver = o;
+    }
+
+    // Events are only told when the world steps sequentially.  In
+    // parallel they would come from many threads at once, in no order;
+    // and synchronously there are no moves as such, only yesterday and
+    // today.  So a grid with events can't be made to step any other way,
+    // and vice versa.
+    public void SetEvents(WatorEvents e)
+    {
+        if (e != null && (itsPool != null || itsSynchronous))
+            throw new IllegalStateException("events need a sequential grid");
+        itsEvents = e;
+    }
+
+    private void NoEvents()
+    {
+        if (itsEvents != null)
+            throw new IllegalStateException("a grid with events must step sequentially");
+    }
+
+    public void SetPopulationListener(WatorPopulationListener l)
+    {
+        itsPopulationListener = l;
+    }
+
+    public long GetPopulation(byte species)
+    {
+        return itsPopulation[species];
+    }
+
+    public void SetMetrics(WatorMetrics m)
+    {
+        itsMetrics = m;
+    }
+
+    public WatorMetrics GetMetrics() {return itsMetrics;}
+
+    // Add the counts of a worker into ours.
+    private void AddPopulation(long population[])
+    {
+        synchronized (itsPopulation)
+        {
+            for (int s=0; s<4; s++)
+                itsPopulation[s] += population[s];
+        }
+    }
+
+    private void CountPopulation()
+    {
+        Arrays.fill(itsPopulation, 0);
+        for (int i=itsOwnedFirst*itsWidth; i<itsOwnedLimit*itsWidth; i++)
+            itsPopulation[itsSpecies[i]]++;
+    }
+
+    public byte GetSpecies(int x, int y)
+    {
+        return itsSpecies[itsNeighborhood.WrappedIndex(x,y)];
+    }
+
+    public int GetColor(int x, int y)
+    {
+        return ColorOf(itsNeighborhood.WrappedIndex(x,y));
+    }
+
+    private int ColorOf(int i)
+    {
+        return ColorOf(itsSpecies[i], itsStarvation[i]);
+    }
+
+    static int ColorOf(byte species, int starvation)
+    {
+        switch (species)
+        {
+            case FISH:  return 0x00FF00; // green
+            case SHARK: return Shark.ColorOf(starvation);
+            case CORAL: return 0x0000FF; // blue
+            default:    return 0xFFFFFF; // white
+        }
+    }
+
+    void CellChanged(long i)
+    {
+        if (itsObserver != null)
+        {
+            int c = (int)i;
+            itsObserver.CellChanged(c % itsWidth, c / itsWidth, ColorOf(c));
+        }
+    }
+
+    public void Run(long chronons)
+    {
+        for (long i=0; i<chronons; i++)
+            Chronon();
+    }
+
+    // Step the world on the given number of threads.  One (or less) means
+    // sequentially, which is the default.  Tiles are about tileSize cells
+    // on a side; never less than three.  A world too small to cut into
+    // tiles steps sequentially no matter what.
+    //
+    // No more threads are used than there are processors; see Threads.
+    // When stepping in parallel, the observer is called from the worker
+    // threads; never for the same cell at the same time.
+    public void SetParallelism(int threads, int tileSize)
+    {
+        threads = Threads(threads);
+        if (threads > 1)
+            NoEvents();
+        if (itsPool != null)
+            itsPool.shutdown();
+        itsPool = null;
+        itsClaims = null;
+        itsTileSize = Math.max(3, tileSize);
+        itsColumnEdges = Edges(itsWidth, itsTileSize);
+        itsRowEdges = Edges(itsHeight, itsTileSize);
+        if (threads <= 1 || itsColumnEdges == null || itsRowEdges == null)
+            return;
+
+        int columns = itsColumnEdges.length-1;
+        int rows = itsRowEdges.length-1;
+        itsTilesOfColor = new int[4][columns*rows/4];
+        int count[] = new int[4];
+        for (int r=0; r<rows; r++)
+            for (int c=0; c<columns; c++)
+            {
+                int tile = r*columns + c;
+                int color = (r&1)*2 + (c&1);
+                itsTilesOfColor[color][count[color]++] = tile;
+            }
+        itsPool = new ForkJoinPool(threads);
+    }
+
+    // Step the world on the given number of threads, with each animal
+    // claiming the cells it changes, rather than with tiles.  One (or
+    // less) means sequentially.  The observer is called from the worker
+    // threads.
+    public void SetClaimParallelism(int threads)
+    {
+        threads = Threads(threads);
+        if (threads > 1)
+            NoEvents();
+        SetParallelism(1, itsTileSize);
+        if (threads <= 1)
+            return;
+        itsClaims = new AtomicIntegerArray(itsWidth*itsHeight);
+        itsPool = new ForkJoinPool(threads);
+    }
+
+    // More threads than processors only take turns on them, and pay for
+    // the pool and the tiles (or claims) without getting anything back;
+    // so a grid given more steps on as many as there are.  With only one
+    // processor, that means sequentially.  (A tiled grid comes out the
+    // same on any number of threads above one, but not sequentially.)
+    private int Threads(int threads)
+    {
+        return Math.min(threads, itsProcessors);
+    }
+
+    // Cut size cells into an even number of tiles, each about tileSize
+    // across and none less than three.  Returns the edges of the tiles,
+    // or null if it can't be done.
+    private static int[] Edges(int size, int tileSize)
+    {
+        int tiles = (size / tileSize) & ~1;
+        if (tiles < 2)
+            tiles = 2;
+        if (size / tiles < 3)
+            return null;
+        int edges[] = new int[tiles+1];
+        for (int t=0; t<=tiles; t++)
+            edges[t] = (int)((long)t * size / tiles);
+        return edges;
+    }
+
+    // A single turn.  Every animal that has not already had its turn
+    // takes it.  Then the mutations, exactly as in WatorEngine.  (Unless
+    // stepping synchronously, which is different; see SyncChronon.)
+    public void Chronon()
+    {
+        WatorMetrics m = itsMetrics;
+        if (m != null)
+            m.ChrononStarted();
+        itsTick++;
+        byte now = (byte)(itsTick & 1);
+
+        // Every animal alive now gets a turn, unless it is eaten first.
+        // The populations count only our own rows, not a band's halo.
+        long animals = (long)itsWidth*(itsOwnedLimit - itsOwnedFirst) -
+                       itsPopulation[ALGAE];
+        long start = WatorMetrics.Start(m);
+        if (itsSynchronous)
+            SyncChronon();
+        else if (itsPool == null)
+            Step(0, 0, itsWidth, itsHeight, now, rand, itsPopulation);
+        else if (itsClaims != null)
+            itsPool.invoke(new ClaimStep(0, itsHeight, now));
+        else
+            for (int color=0; color<4; color++)
+                itsPool.invoke(new TileStep(itsTilesOfColor[color], 0,
+                               itsTilesOfColor[color].length, now));
+        if (m != null)
+            m.Turns(start, animals);
+
+        if (!itsSynchronous)
+        {
+            start = WatorMetrics.Start(m);
+            if (rand.NextFloat() > .95)
+                MutateAlgae();
+
+            if (rand.NextFloat() > .97)
+                MutateFish();
+            WatorMetrics.Took(m, WatorMetrics.MUTATE, start);
+        }
+
+        if (itsEvents != null)
+            itsEvents.ChrononEnded(itsTick);
+        if (itsObserver != null)
+            itsObserver.ChrononEnded(itsTick);
+        if (itsPopulationListener != null)
+            itsPopulationListener.Populations(itsTick,
+                                              itsPopulation[ALGAE],
+                                              itsPopulation[FISH],
+                                              itsPopulation[SHARK],
+                                              itsPopulation[CORAL]);
+        if (m != null)
+            m.ChrononEnded(itsTick);
+    }
+
+    // Give a turn to every animal in the given rectangle that has not
+    // had one yet, counting the changes in population.
+    private void Step(int x0, int y0, int x1, int y1, byte now, WatorRandom r,
+                      long population[])
+    {
+        for (int y=y0; y<y1; y++)
+            for (int x=x0; x<x1; x++)
+            {
+                int i = y*itsWidth + x;
+                byte s = itsSpecies[i];
+                if (s == ALGAE || itsStamp[i] == now)
+                    continue;
+                itsStamp[i] = now;
+                Tic(x, y, i, s, r, population);
+            }
+    }
+
+    // Steps some of the tiles of one color; splitting the work in half
+    // until there is only one tile left to do.
+    private class TileStep extends RecursiveAction
+    {
+        private int itsTiles[];
+        private int itsFirst;
+        private int itsLimit;
+        private byte itsNow;
+
+        TileStep(int tiles[], int first, int limit, byte now)
+        {
+            itsTiles = tiles;
+            itsFirst = first;
+            itsLimit = limit;
+            itsNow = now;
+        }
+
+        protected void compute()
+        {
+            if (itsLimit - itsFirst > 1)
+            {
+                int middle = (itsFirst + itsLimit) >>> 1;
+                invokeAll(new TileStep(itsTiles, itsFirst, middle, itsNow),
+                          new TileStep(itsTiles, middle, itsLimit, itsNow));
+            }
+            else if (itsLimit > itsFirst)
+            {
+                int tile = itsTiles[itsFirst];
+                int columns = itsColumnEdges.length-1;
+                int c = tile % columns;
+                int r = tile / columns;
+                // The tile gets a stream of its own for this chronon, made
+                // from the seed and the tick; so a saved world carries on
+                // the same way, and so does one that was never saved.
+                WatorRandom random = new WatorRandom(
+                    WatorRandom.Hash(itsSeed, itsTick, tile));
+                long population[] = new long[4];
+                Step(itsColumnEdges[c], itsRowEdges[r],
+                     itsColumnEdges[c+1], itsRowEdges[r+1],
+                     itsNow, random, population);
+                AddPopulation(population);
+            }
+        }
+    }
+
+    // Steps some rows, claiming cells as it goes; splitting the rows in
+    // half until there are only a few left to do.  Idle workers steal the
+    // halves that are waiting.
+    private class ClaimStep extends RecursiveAction
+    {
+        private int itsFirst;
+        private int itsLimit;
+        private byte itsNow;
+
+        ClaimStep(int first, int limit, byte now)
+        {
+            itsFirst = first;
+            itsLimit = limit;
+            itsNow = now;
+        }
+
+        protected void compute()
+        {
+            if (itsLimit - itsFirst > 4)
+            {
+                int middle = (itsFirst + itsLimit) >>> 1;
+                invokeAll(new ClaimStep(itsFirst, middle, itsNow),
+                          new ClaimStep(middle, itsLimit, itsNow));
+                return;
+            }
+
+            // These rows get a stream of their own for this chronon.
+            // Which worker does them doesn't matter.
+            WatorRandom r = new WatorRandom(
+                WatorRandom.Hash(itsSeed, itsTick, itsFirst));
+            long population[] = new long[4];
+            for (int y=itsFirst; y<itsLimit; y++)
+                for (int x=0; x<itsWidth; x++)
+                {
+                    int i = y*itsWidth + x;
+                    // Anything that arrives here from now on has already
+                    // had its turn, so it is safe to skip algae unclaimed.
+                    if (itsSpecies[i] == ALGAE)
+                        continue;
+                    while (!TryClaim(i))
+                        Thread.onSpinWait();
+                    byte s = itsSpecies[i];
+                    if (s != ALGAE && itsStamp[i] != itsNow)
+                    {
+                        itsStamp[i] = itsNow;
+                        Tic(x, y, i, s, r, population);
+                    }
+                    Release(i);
+                }
+            AddPopulation(population);
+        }
+    }
+
+    // When claiming, these claim and release a cell.  Otherwise every
+    // cell is always ours.
+    boolean IsClaiming() {return itsClaims != null;}
+
+    boolean TryClaim(long i)
+    {
+        return itsClaims == null || itsClaims.compareAndSet((int)i, 0, 1);
+    }
+
+    void Release(long i)
+    {
+        if (itsClaims != null)
+            itsClaims.set((int)i, 0);
+    }
+
+    //---------------------------
+    // The cells, for GridRules.  Our cell numbers are ints.
+    //---------------------------
+
+    long Index(int x, int y)              {return y*itsWidth + x;}
+    long Neighbor(int x, int y, int dir)  {return itsNeighborhood.Neighbor(x, y, dir);}
+
+    byte  Species(long i)                 {return itsSpecies[(int)i];}
+    void  SetSpecies(long i, byte s)      {itsSpecies[(int)i] = s;}
+    void  SetStamp(long i, byte s)        {itsStamp[(int)i] = s;}
+    short Gestation(long i)               {return itsGestation[(int)i];}
+    void  SetGestation(long i, short g)   {itsGestation[(int)i] = g;}
+    short GestationTimer(long i)          {return itsGestationTimer[(int)i];}
+    void  SetGestationTimer(long i, short t) {itsGestationTimer[(int)i] = t;}
+    short Starvation(long i)              {return itsStarvation[(int)i];}
+    void  SetStarvation(long i, short s)  {itsStarvation[(int)i] = s;}
+    short StarvationTimer(long i)         {return itsStarvationTimer[(int)i];}
+    void  SetStarvationTimer(long i, short t) {itsStarvationTimer[(int)i] = t;}
+    int   LastMealTick(long i)            {return itsLastMealTick[(int)i];}
+    void  SetLastMealTick(long i, int t)  {itsLastMealTick[(int)i] = t;}
+    byte  MealCount(long i)               {return itsMealCount[(int)i];}
+    void  SetMealCount(long i, byte m)    {itsMealCount[(int)i] = m;}
+    short LifeTime(long i)                {return itsLifeTime[(int)i];}
+    void  SetLifeTime(long i, short l)    {itsLifeTime[(int)i] = l;}
+    float Venom(long i)                   {return itsVenom[(int)i];}
+    void  SetVenom(long i, float v)       {itsVenom[(int)i] = v;}
+    int   EventCell(long i)               {return (int)i;}
+
+    // Copy an animal from one cell to another, leaving algae behind.
+    void Move(long from, long to)
+    {
+        int f = (int)from;
+        int t = (int)to;
+        itsSpecies[t] = itsSpecies[f];
+        itsStamp[t] = itsStamp[f];
+        itsGestation[t] = itsGestation[f];
+        itsGestationTimer[t] = itsGestationTimer[f];
+        itsStarvation[t] = itsStarvation[f];
+        itsStarvationTimer[t] = itsStarvationTimer[f];
+        itsLastMealTick[t] = itsLastMealTick[f];
+        itsMealCount[t] = itsMealCount[f];
+        itsLifeTime[t] = itsLifeTime[f];
+        itsVenom[t] = itsVenom[f];
+        itsSpecies[f] = ALGAE;
+    }
+
+    //---------------------------
+    // Synchronous stepping
+    //---------------------------
+
+    // SyncChronon.
+    // Everything else in WatorGrid updates the world in place.  Animals
+    // early in the walk see where the later animals were yesterday, and
+    // the later animals see where the early ones are today.  In the
+    // synchronous mode every animal sees yesterday's world, frozen, and
+    // today's world is written into a second set of arrays.  Then the two
+    // sets are swapped.
+    //
+    // Since nobody sees anybody else's moves, two animals may want the
+    // same cell.  Conflicts are settled the same way every time:
+    //
+    //   1. Every fish and shark decides where it wants to go, and whether
+    //      it will leave a baby behind if it gets there.
+    //   2. Sharks go first.  If several sharks want the same cell, the
+    //      one with the highest priority (a random number) gets it.  Any
+    //      fish or shark in that cell is eaten, and does not move.
+    //   3. Then the fish.  A fish gets an empty cell that no shark got,
+    //      if it wins among the fish that want it, and if it was not
+    //      eaten or stung.
+    //   4. Every cell works out what is in it today.
+    //
+    // A shark that is eaten on the same day it eats does not get to keep
+    // its meal; the cell it ate from is left empty.  Coral stings and
+    // infections are decided from yesterday's coral, and a sting takes
+    // precedence over a fish's move.  A coral that dies today stings no
+    // one, as in CoralProcessTic.
+    //
+    // Each step only reads what the previous step wrote, and each cell
+    // writes only its own entries, so every step can be done on any
+    // number of threads.  The random numbers are not drawn from a Random;
+    // they are a hash of the seed, the tick, the cell and what the number
+    // is for.  So the outcome does not depend on which thread does what,
+    // or in what order.
+
+    private static final int NOWHERE = -1;
+    private static final int REPRODUCE_BIT = 8; // or'd into an intent.
+
+    // The phases of a synchronous chronon.
+    private static final int INTEND = 0;
+    private static final int RESOLVE_SHARKS = 1;
+    private static final int RESOLVE_FISH = 2;
+    private static final int COMPOSE = 3;
+
+    // What the random numbers are for.
+    private static final int MOVE = 0;
+    private static final int REPRODUCE = 1;
+    private static final int PRIORITY = 2;
+    private static final int BABY = 3;
+    private static final int VENOM = 4;
+    private static final int INFECT = 5;
+    private static final int LIFETIME = 6;
+    private static final int MUTATE_ALGAE = 7;
+    private static final int MUTATE_FISH = 10;
+    private static final int STING = 16; // plus the direction of the fish.
+
+    // Turn synchronous stepping on or off.  Works with SetParallelism and
+    // SetClaimParallelism: if there is a pool, its threads are used.
+    public void SetSynchronous(boolean synchronous)
+    {
+        if (synchronous)
+            NoEvents();
+        itsSynchronous = synchronous;
+        if (synchronous && itsNextSpecies == null)
+        {
+            int cells = itsWidth * itsHeight;
+            itsIntent = new byte[cells];
+            itsSharkWinner = new byte[cells];
+            itsFishWinner = new byte[cells];
+            itsNextSpecies = new byte[cells];
+            itsNextStamp = new byte[cells];
+            itsNextGestation = new short[cells];
+            itsNextGestationTimer = new short[cells];
+            itsNextStarvation = new short[cells];
+            itsNextStarvationTimer = new short[cells];
+            itsNextLastMealTick = new int[cells];
+            itsNextMealCount = new byte[cells];
+            itsNextLifeTime = new short[cells];
+            itsNextVenom = new float[cells];
+        }
+    }
+
+    private void SyncChronon()
+    {
+        Arrays.fill(itsPopulation, 0); // every cell is counted in COMPOSE.
+        for (int phase=INTEND; phase<=COMPOSE; phase++)
+            if (itsPool == null)
+                SyncPhase(phase, 0, itsHeight);
+            else
+                itsPool.invoke(new SyncStep(phase, 0, itsHeight));
+        SwapGenerations();
+
+        if (Roll(NOWHERE, MUTATE_ALGAE) > .95)
+        {
+            int i = RollCell(MUTATE_ALGAE);
+            if (i != NOWHERE && itsSpecies[i] == ALGAE)
+            {
+                NewFish(i, fishGestation);
+                Became(itsPopulation, ALGAE, FISH);
+                CellChanged(i);
+            }
+        }
+
+        if (Roll(NOWHERE, MUTATE_FISH) > .97)
+        {
+            int i = RollCell(MUTATE_FISH);
+            if (i != NOWHERE && itsSpecies[i] == FISH)
+            {
+                NewShark(i, sharkGestation, sharkStarvation);
+                Became(itsPopulation, FISH, SHARK);
+                CellChanged(i);
+            }
+        }
+    }
+
+    private void SyncPhase(int phase, int firstRow, int limitRow)
+    {
+        for (int y=firstRow; y<limitRow; y++)
+            for (int x=0; x<itsWidth; x++)
+            {
+                int i = y*itsWidth + x;
+                switch (phase)
+                {
+                    case INTEND:         Intend(x, y, i);        break;
+                    case RESOLVE_SHARKS: ResolveSharks(x, y, i); break;
+                    case RESOLVE_FISH:   ResolveFish(x, y, i);   break;
+                    default:             Compose(x, y, i);       break;
+                }
+            }
+
+        // Composing builds every cell anew, so it counts them all again;
+        // the ones we own, that is.
+        if (phase == COMPOSE)
+        {
+            long population[] = new long[4];
+            int first = Math.max(firstRow, itsOwnedFirst);
+            int limit = Math.min(limitRow, itsOwnedLimit);
+            for (int i=first*itsWidth; i<limit*itsWidth; i++)
+                population[itsNextSpecies[i]]++;
+            AddPopulation(population);
+        }
+    }
+
+    // Does one phase for some rows; splitting the rows in half until
+    // there are only a few left.
+    private class SyncStep extends RecursiveAction
+    {
+        private int itsPhase;
+        private int itsFirst;
+        private int itsLimit;
+
+        SyncStep(int phase, int first, int limit)
+        {
+            itsPhase = phase;
+            itsFirst = first;
+            itsLimit = limit;
+        }
+
+        protected void compute()
+        {
+            if (itsLimit - itsFirst > 16)
+            {
+                int middle = (itsFirst + itsLimit) >>> 1;
+                invokeAll(new SyncStep(itsPhase, itsFirst, middle),
+                          new SyncStep(itsPhase, middle, itsLimit));
+            }
+            else
+                SyncPhase(itsPhase, itsFirst, itsLimit);
+        }
+    }
+
+    // 1. Where does the animal in cell i want to go?  The intent is a
+    // direction, perhaps with REPRODUCE_BIT, or NOWHERE.
+    private void Intend(int x, int y, int i)
+    {
+        byte s = itsSpecies[i];
+        int choices = 0;
+        if (s == FISH)
+            choices = FishChoices(x, y);
+        else if (s == SHARK)
+            choices = SharkChoices(x, y, i);
+        if (choices == 0)
+        {
+            itsIntent[i] = NOWHERE;
+            return;
+        }
+
+        int choice = (int)(Roll(i, MOVE) * Integer.bitCount(choices));
+        int dir = Neighborhood.NthDirection(choices, choice);
+        byte prey = itsSpecies[itsNeighborhood.Neighbor(x, y, dir)];
+        boolean eats = s == SHARK && (prey == FISH || prey == SHARK);
+        boolean canReproduce = s == FISH ||
+            (eats ? itsMealCount[i] >= 1
+                  : itsMealCount[i] > 1 && MealAge(itsTick, itsLastMealTick[i]) <= 2);
+        if (Countdown(itsGestationTimer[i]) < 0 &&
+            Roll(i, REPRODUCE) > 0.1 &&
+            canReproduce)
+            dir |= REPRODUCE_BIT;
+        itsIntent[i] = (byte)dir;
+    }
+
+    private static short Countdown(short timer)
+    {
+        return timer >= 0 ? (short)(timer-1) : timer;
+    }
+
+    // 2. Which shark, if any, gets cell i?  Recorded as the direction from
+    // i to that shark.
+    private void ResolveSharks(int x, int y, int i)
+    {
+        int winner = NOWHERE;
+        long best = 0;
+        for (int d=0; d<8; d++)
+        {
+            int k = itsNeighborhood.Neighbor(x, y, d);
+            if (itsSpecies[k] == SHARK && WantsToGo(k, d))
+            {
+                long priority = Hash(k, PRIORITY);
+                if (winner == NOWHERE || priority > best)
+                {
+                    winner = d;
+                    best = priority;
+                }
+            }
+        }
+        itsSharkWinner[i] = (byte)winner;
+    }
+
+    // Does the animal in cell k, which is in direction d from us, want to
+    // come here?
+    private boolean WantsToGo(int k, int d)
+    {
+        int intent = itsIntent[k];
+        return intent != NOWHERE &&
+               (intent & 7) == Neighborhood.OPPOSITE[d];
+    }
+
+    // 3. Which fish, if any, gets cell i?
+    private void ResolveFish(int x, int y, int i)
+    {
+        int winner = NOWHERE;
+        if (itsSpecies[i] == ALGAE && itsSharkWinner[i] == NOWHERE)
+        {
+            long best = 0;
+            for (int d=0; d<4; d++)
+            {
+                int k = itsNeighborhood.Neighbor(x, y, d);
+                if (itsSpecies[k] == FISH && WantsToGo(k, d) &&
+                    itsSharkWinner[k] == NOWHERE && // not eaten
+                    !Stung(itsNeighborhood.NeighborX(x, d),
+                           itsNeighborhood.NeighborY(y, d)))
+                {
+                    long priority = Hash(k, PRIORITY);
+                    if (winner == NOWHERE || priority > best)
+                    {
+                        winner = d;
+                        best = priority;
+                    }
+                }
+            }
+        }
+        itsFishWinner[i] = (byte)winner;
+    }
+
+    // Is the fish at x,y stung by any of the coral around it?  See
+    // CoralProcessTic; each coral that lives through today rolls once for
+    // its venom, and then once for each fish.
+    private boolean Stung(int x, int y)
+    {
+        for (int d=0; d<4; d++)
+        {
+            int c = itsNeighborhood.Neighbor(x, y, d);
+            if (itsSpecies[c] == CORAL &&
+                !CoralDies(itsNeighborhood.NeighborX(x, d),
+                           itsNeighborhood.NeighborY(y, d), c) &&
+                RollDouble(c, VENOM) > (1 - itsVenom[c]) &&
+                RollDouble(c, STING + Neighborhood.OPPOSITE[d]) > .7)
+                return true;
+        }
+        return false;
+    }
+
+    // 4. What is in cell i today?
+    private void Compose(int x, int y, int i)
+    {
+        byte before = itsSpecies[i];
+        int shark = itsSharkWinner[i];
+        if (shark != NOWHERE)
+        {
+            int k = itsNeighborhood.Neighbor(x, y, shark);
+            if (itsSharkWinner[k] != NOWHERE)
+                NextAlgae(i); // the shark was eaten on its way here.
+            else
+                Arrive(k, i, before);
+        }
+        else if (before == ALGAE)
+        {
+            int fish = itsFishWinner[i];
+            if (fish != NOWHERE)
+                Arrive(itsNeighborhood.Neighbor(x, y, fish), i, before);
+            else
+                NextAlgae(i);
+        }
+        else if (before == CORAL)
+            CoralStays(x, y, i);
+        else if (before == FISH && Stung(x, y))
+            NextCoral(i);
+        else
+            Stays(x, y, i);
+
+        if (itsObserver != null)
+        {
+            int was = ColorOf(before, itsStarvation[i]);
+            int is = ColorOf(itsNextSpecies[i], itsNextStarvation[i]);
+            if (was != is)
+                itsObserver.CellChanged(x, y, is);
+        }
+    }
+
+    // The animal in cell k moves into cell i, which held before; or leaves
+    // a baby there.
+    private void Arrive(int k, int i, byte before)
+    {
+        if ((itsIntent[k] & REPRODUCE_BIT) != 0)
+        {
+            Baby(k, i);
+            return;
+        }
+        Carry(k, i);
+        itsNextGestationTimer[i] = Countdown(itsGestationTimer[k]);
+        if (itsSpecies[k] == SHARK)
+            SharkAfterMove(i, before == FISH || before == SHARK, false);
+    }
+
+    // The fish or shark in cell i is not eaten, and is not stung.  It
+    // either moved away, or it is still here; perhaps with a new baby
+    // next door.
+    private void Stays(int x, int y, int i)
+    {
+        byte s = itsSpecies[i];
+        int intent = itsIntent[i];
+        boolean moved = false;
+        byte prey = ALGAE;
+        if (intent != NOWHERE)
+        {
+            int dir = intent & 7;
+            int t = itsNeighborhood.Neighbor(x, y, dir);
+            byte winner = s == SHARK ? itsSharkWinner[t] : itsFishWinner[t];
+            moved = winner == Neighborhood.OPPOSITE[dir];
+            prey = itsSpecies[t];
+        }
+
+        boolean reproduced = moved && (intent & REPRODUCE_BIT) != 0;
+        if (moved && !reproduced)
+        {
+            NextAlgae(i);
+            return;
+        }
+
+        Carry(i, i);
+        itsNextGestationTimer[i] = Countdown(itsGestationTimer[i]);
+        if (reproduced)
+            itsNextGestationTimer[i] = itsGestation[i];
+        if (s == SHARK)
+            SharkAfterMove(i, reproduced && (prey == FISH || prey == SHARK),
+                           reproduced);
+    }
+
+    // A shark, now in cell i of the next generation, eats (maybe), has
+    // its meals counted, and starves (maybe).
+    private void SharkAfterMove(int i, boolean ate, boolean reproduced)
+    {
+        if (ate)
+        {
+            itsNextStarvationTimer[i] = itsNextStarvation[i];
+            itsNextLastMealTick[i] = (int)itsTick; // see MealAge.
+            if (itsNextMealCount[i] < Byte.MAX_VALUE)
+                itsNextMealCount[i]++;
+        }
+        if (reproduced)
+            itsNextMealCount[i] = 0;
+        if (--itsNextStarvationTimer[i] < 0)
+            itsNextSpecies[i] = ALGAE;
+    }
+
+    // Does the coral in cell i, at x,y, die today: of old age, or of being
+    // crowded or lonely?
+    private boolean CoralDies(int x, int y, int i)
+    {
+        if (itsLifeTime[i] - 1 <= 0)
+            return true;
+        int coral = 0;
+        int algae = 0;
+        for (int d=0; d<4; d++)
+        {
+            byte s = itsSpecies[itsNeighborhood.Neighbor(x, y, d)];
+            if (s == CORAL)
+                coral++;
+            else if (s == ALGAE)
+                algae++;
+        }
+        return coral == 4 || algae == 4;
+    }
+
+    // The coral in cell i ages, may be infected by a neighbor dying of
+    // old age, and may die itself.
+    private void CoralStays(int x, int y, int i)
+    {
+        Carry(i, i);
+        int life = itsLifeTime[i] - 1;
+        boolean dies = life <= 0;
+        int coral = 0;
+        int algae = 0;
+        for (int d=0; d<4; d++)
+        {
+            int c = itsNeighborhood.Neighbor(x, y, d);
+            byte s = itsSpecies[c];
+            if (s == CORAL)
+            {
+                coral++;
+                if (itsLifeTime[c] - 1 <= 0 && !dies)
+                    life = 5 + (int)RollGaussian(i, INFECT)*5;
+            }
+            else if (s == ALGAE)
+                algae++;
+        }
+        itsNextLifeTime[i] = (short)life;
+        itsNextVenom[i] = itsVenom[i] * .9f;
+        if (life <= 0 || coral == 4 || algae == 4)
+            itsNextSpecies[i] = ALGAE;
+    }
+
+    // A baby, from the parent in cell k, is born in cell i.
+    private void Baby(int k, int i)
+    {
+        if (itsSpecies[k] == FISH)
+        {
+            if (RollDouble(k, BABY) < 0.99995)
+            {
+                NextAlgae(i);
+                itsNextSpecies[i] = FISH;
+                itsNextGestation[i] = itsGestation[k];
+                itsNextGestationTimer[i] = itsGestation[k];
+            }
+            else
+                NextCoral(i);
+        }
+        else
+        {
+            int delta = (int)(RollGaussian(k, BABY)/2.8);
+            int g = itsGestation[k] + delta;
+            int s = itsStarvation[k] + delta;
+            if (g<1) g=1;
+            NextAlgae(i);
+            itsNextSpecies[i] = SHARK;
+            itsNextGestation[i] = (short)g;
+            itsNextGestationTimer[i] = (short)g;
+            itsNextStarvation[i] = (short)s;
+            itsNextStarvationTimer[i] = (short)s;
+        }
+    }
+
+    private void NextCoral(int i)
+    {
+        NextAlgae(i);
+        itsNextSpecies[i] = CORAL;
+        int life = 300;
+        life += RollGaussian(i, LIFETIME) * (life / 5);
+        itsNextLifeTime[i] = (short)life;
+        itsNextVenom[i] = .9f;
+    }
+
+    // Empty out cell i of the next generation.
+    private void NextAlgae(int i)
+    {
+        itsNextSpecies[i] = ALGAE;
+        itsNextStamp[i] = (byte)(itsTick & 1);
+        itsNextGestation[i] = 0;
+        itsNextGestationTimer[i] = 0;
+        itsNextStarvation[i] = 0;
+        itsNextStarvationTimer[i] = 0;
+        itsNextLastMealTick[i] = 0;
+        itsNextMealCount[i] = 0;
+        itsNextLifeTime[i] = 0;
+        itsNextVenom[i] = 0;
+    }
+
+    // Copy the animal in cell k of this generation to cell i of the next.
+    private void Carry(int k, int i)
+    {
+        itsNextSpecies[i] = itsSpecies[k];
+        itsNextStamp[i] = (byte)(itsTick & 1);
+        itsNextGestation[i] = itsGestation[k];
+        itsNextGestationTimer[i] = itsGestationTimer[k];
+        itsNextStarvation[i] = itsStarvation[k];
+        itsNextStarvationTimer[i] = itsStarvationTimer[k];
+        itsNextLastMealTick[i] = itsLastMealTick[k];
+        itsNextMealCount[i] = itsMealCount[k];
+        itsNextLifeTime[i] = itsLifeTime[k];
+        itsNextVenom[i] = itsVenom[k];
+    }
+
+    private void SwapGenerations()
+    {
+        byte b[];
+        short s[];
+        b = itsSpecies; itsSpecies = itsNextSpecies; itsNextSpecies = b;
+        b = itsStamp; itsStamp = itsNextStamp; itsNextStamp = b;
+        b = itsMealCount; itsMealCount = itsNextMealCount; itsNextMealCount = b;
+        s = itsGestation; itsGestation = itsNextGestation; itsNextGestation = s;
+        s = itsGestationTimer; itsGestationTimer = itsNextGestationTimer; itsNextGestationTimer = s;
+        s = itsStarvation; itsStarvation = itsNextStarvation; itsNextStarvation = s;
+        s = itsStarvationTimer; itsStarvationTimer = itsNextStarvationTimer; itsNextStarvationTimer = s;
+        s = itsLifeTime; itsLifeTime = itsNextLifeTime; itsNextLifeTime = s;
+        int m[] = itsLastMealTick; itsLastMealTick = itsNextLastMealTick; itsNextLastMealTick = m;
+        float v[] = itsVenom; itsVenom = itsNextVenom; itsNextVenom = v;
+    }
+
+    // The random numbers of the synchronous mode.  The same seed, tick,
+    // cell and purpose always give the same number.  (The cell is NOWHERE
+    // for rolls that belong to the world rather than to a cell.)  The
+    // cell is the world's, so a band rolls the same numbers as the whole.
+    private long Hash(int cell, int purpose)
+    {
+        return WatorRandom.Hash(itsSeed, itsTick, ((long)WorldCell(cell) << 8) | purpose);
+    }
+
+    private int WorldCell(int cell)
+    {
+        if (itsRowOffset == 0 || cell == NOWHERE)
+            return cell;
+        int y = cell / itsWidth + itsRowOffset;
+        while (y >= itsWorldHeight) // more than once, if there is just one band.
+            y -= itsWorldHeight;
+        return y*itsWidth + cell % itsWidth;
+    }
+
+    private float Roll(int cell, int purpose)
+    {
+        return WatorRandom.ToFloat(Hash(cell, purpose));
+    }
+
+    private double RollDouble(int cell, int purpose)
+    {
+        return WatorRandom.ToDouble(Hash(cell, purpose));
+    }
+
+    private double RollGaussian(int cell, int purpose)
+    {
+        return WatorRandom.Gaussian(Hash(cell, purpose),
+                                    Hash(cell, purpose + 64));
+    }
+
+    // A cell of the world, if it is one of ours; otherwise NOWHERE.
+    private int RollCell(int purpose)
+    {
+        int x = (int)(Roll(NOWHERE, purpose+1) * itsWidth);
+        int y = (int)(Roll(NOWHERE, purpose+2) * itsWorldHeight);
+        y = Math.floorMod(y - itsRowOffset - itsOwnedFirst, itsWorldHeight) + itsOwnedFirst;
+        if (y >= itsOwnedLimit)
+            return NOWHERE;
+        return y*itsWidth + x;
+    }
+
+    //---------------------------
+    // Bands.  See WatorBands.
+    //---------------------------
+
+    // Make this grid a band of a world that is worldHeight rows high.  Our
+    // own rows start at the world's row firstRow; above and below them
+    // are HALO rows that belong to the bands above and below.  So the
+    // grid must be 2*HALO rows higher than the band.
+    //
+    // A band steps synchronously, with the same random numbers as the
+    // whole world.  It works out its halo rows along with its own, but
+    // those come out wrong: a halo row can't see past the edge of the
+    // halo, and wraps around to the other edge instead.  The mistakes
+    // spread a row or so further with each step of SyncChronon, and after
+    // all five they reach HALO rows in, but no further.  So the band's own
+    // rows come out right, and the halo rows are thrown away, and copied
+    // again from the neighbors, after every chronon.
+    void SetBand(int worldHeight, int firstRow)
+    {
+        if (itsHeight - 2*HALO < HALO)
+            throw new IllegalArgumentException("a band must be at least " + HALO + " rows high");
+        itsWorldHeight = worldHeight;
+        itsRowOffset = Math.floorMod(firstRow - HALO, worldHeight);
+        itsOwnedFirst = HALO;
+        itsOwnedLimit = itsHeight - HALO;
+        SetSynchronous(true);
+        CountPopulation();
+    }
+
+    // The arrays, in the order that Save writes them.
+    private Object[] Fields()
+    {
+        return new Object[] {itsSpecies, itsStamp, itsGestation, itsGestationTimer,
+                             itsStarvation, itsStarvationTimer, itsLastMealTick,
+                             itsMealCount, itsLifeTime, itsVenom};
+    }
+
+    private static int BytesOf(Object field)
+    {
+        if (field instanceof byte[])
+            return 1;
+        if (field instanceof short[])
+            return 2;
+        return 4;
+    }
+
+    // Read our rows, and the halo rows, out of a snapshot of the whole
+    // world; each row of each array from wherever Save put it.
+    void ReadBand(WatorSnapshot s) throws IOException
+    {
+        SetSeed(s.GetSeed());
+        rand.SetState(s.GetRandomState());
+        itsTick = s.GetTick();
+        long base = WatorSnapshot.HEADER;
+        for (Object field : Fields())
+        {
+            int bytes = BytesOf(field);
+            for (int y=0; y<itsHeight; y++)
+            {
+                int row = (y + itsRowOffset) % itsWorldHeight;
+                s.Seek(base + (long)row * itsWidth * bytes);
+                Transfer(s, false, field, y*itsWidth, itsWidth);
+            }
+            base += (long)itsWidth * itsWorldHeight * bytes;
+        }
+        CountPopulation();
+    }
+
+    // Write our own rows into a snapshot of the whole world.
+    void WriteBand(WatorSnapshot s) throws IOException
+    {
+        long base = WatorSnapshot.HEADER;
+        int firstRow = (itsOwnedFirst + itsRowOffset) % itsWorldHeight;
+        for (Object field : Fields())
+        {
+            int bytes = BytesOf(field);
+            s.Seek(base + (long)firstRow * itsWidth * bytes);
+            Transfer(s, true, field, itsOwnedFirst*itsWidth,
+                     (itsOwnedLimit - itsOwnedFirst)*itsWidth);
+            base += (long)itsWidth * itsWorldHeight * bytes;
+        }
+    }
+
+    private static void Transfer(WatorSnapshot s, boolean put, Object field,
+                                 int offset, int length) throws IOException
+    {
+        if (field instanceof byte[])
+        {
+            if (put) s.PutBytes((byte[])field, offset, length);
+            else     s.GetBytes((byte[])field, offset, length);
+        }
+        else if (field instanceof short[])
+        {
+            if (put) s.PutShorts((short[])field, offset, length);
+            else     s.GetShorts((short[])field, offset, length);
+        }
+        else if (field instanceof int[])
+        {
+            if (put) s.PutInts((int[])field, offset, length);
+            else     s.GetInts((int[])field, offset, length);
+        }
+        else
+        {
+            if (put) s.PutFloats((float[])field, offset, length);
+            else     s.GetFloats((float[])field, offset, length);
+        }
+    }
+
+    int GetOwnedFirst() {return itsOwnedFirst;}
+    int GetOwnedLimit() {return itsOwnedLimit;}
+
+    // How many bytes the given number of rows take in PutRows.
+    int RowBytes(int rows)
+    {
+        return rows * itsWidth * CELL_BYTES;
+    }
+
+    // Copy every array of the given rows into b, or out of it.  This is
+    // how bands send their edge rows to each other.
+    void PutRows(java.nio.ByteBuffer b, int first, int rows)
+    {
+        int offset = first*itsWidth;
+        int length = rows*itsWidth;
+        for (Object field : Fields())
+        {
+            if (field instanceof byte[])
+                b.put((byte[])field, offset, length);
+            else if (field instanceof short[])
+                b.asShortBuffer().put((short[])field, offset, length);
+            else if (field instanceof int[])
+                b.asIntBuffer().put((int[])field, offset, length);
+            else
+                b.asFloatBuffer().put((float[])field, offset, length);
+            if (!(field instanceof byte[]))
+                b.position(b.position() + length*BytesOf(field));
+        }
+    }
+
+    void GetRows(java.nio.ByteBuffer b, int first, int rows)
+    {
+        int offset = first*itsWidth;
+        int length = rows*itsWidth;
+        for (Object field : Fields())
+        {
+            if (field instanceof byte[])
+                b.get((byte[])field, offset, length);
+            else if (field instanceof short[])
+                b.asShortBuffer().get((short[])field, offset, length);
+            else if (field instanceof int[])
+                b.asIntBuffer().get((int[])field, offset, length);
+            else
+                b.asFloatBuffer().get((float[])field, offset, length);
+            if (!(field instanceof byte[]))
+                b.position(b.position() + length*BytesOf(field));
+        }
+    }
+
+    //---------------------------
+    // Snapshots.  See WatorSnapshot.
+    //---------------------------
+
+    // The arrays are written just as they are, one after another.
+    public void Save(String fileName) throws IOException
+    {
+        WatorSnapshot s = WatorSnapshot.Create(fileName, WatorSnapshot.GRID,
+                                               itsWidth, itsHeight, itsTick,
+                                               itsSeed, rand.GetState());
+        try
+        {
+            s.PutBytes(itsSpecies);
+            s.PutBytes(itsStamp);
+            s.PutShorts(itsGestation);
+            s.PutShorts(itsGestationTimer);
+            s.PutShorts(itsStarvation);
+            s.PutShorts(itsStarvationTimer);
+            s.PutInts(itsLastMealTick);
+            s.PutBytes(itsMealCount);
+            s.PutShorts(itsLifeTime);
+            s.PutFloats(itsVenom);
+        }
+        finally
+        {
+            s.Close();
+        }
+    }
+
+    // Read what Save wrote, into a new world of the same size.
+    void Read(WatorSnapshot s) throws IOException
+    {
+        SetSeed(s.GetSeed());
+        rand.SetState(s.GetRandomState());
+        itsTick = s.GetTick();
+        s.GetBytes(itsSpecies);
+        s.GetBytes(itsStamp);
+        s.GetShorts(itsGestation);
+        s.GetShorts(itsGestationTimer);
+        s.GetShorts(itsStarvation);
+        s.GetShorts(itsStarvationTimer);
+        s.GetInts(itsLastMealTick);
+        s.GetBytes(itsMealCount);
+        s.GetShorts(itsLifeTime);
+        s.GetFloats(itsVenom);
+        CountPopulation();
+    }
+
+    //---------------------------
+    // Populating and mutating
+    //---------------------------
+
+    // See WatorEngine.Populate.
+    public void Populate()
+    {
+        itsTick = 0;
+        Arrays.fill(itsSpecies, ALGAE);
+        Arrays.fill(itsStamp, (byte)0);
+
+        int cells[] = itsPlacement.Choose(itsWidth, itsHeight, rand);
+        int fish = itsPlacement.GetFish();
+        int sharks = itsPlacement.GetSharks();
+        for (int f=0; f<fish; f++)
+            NewFish(cells[f], fishGestation);
+        for (int s=fish; s<fish+sharks; s++)
+            NewShark(cells[s], sharkGestation, sharkStarvation);
+        CountPopulation();
+    }
+
+    // Runs a grid world with no display at all.
+    //   java wator.WatorGrid <width> <height> <chronons> [threads [tile|claim|sync [seed]]]
+    public static void main(String[] args)
+    {
+        if (args.length < 3 || args.length > 6)
+        {
+            System.out.println("usage: java wator.WatorGrid width height chronons [threads [tile|claim|sync [seed]]]");
+            return;
+        }
+        WatorGrid w = new WatorGrid(Integer.parseInt(args[0]),
+                                    Integer.parseInt(args[1]));
+        long chronons = Long.parseLong(args[2]);
+        String mode = args.length >= 5 ? args[4] : "tile";
+        if (args.length == 6)
+            w.SetSeed(Long.parseLong(args[5]));
+        if (mode.equals("claim"))
+            w.SetClaimParallelism(Integer.parseInt(args[3]));
+        else if (args.length >= 4)
+            w.SetParallelism(Integer.parseInt(args[3]), 64);
+        if (mode.equals("sync"))
+            w.SetSynchronous(true);
+        System.out.println("seed " + w.GetSeed());
+        w.Populate();
+        long start = System.currentTimeMillis();
+        w.Run(chronons);
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println(chronons + " chronons in " + elapsed + " ms");
+    }
+}
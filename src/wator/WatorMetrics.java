@@ -0,0 +1,304 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to find out where the time of a chronon goes.
+
+package wator;
+
+import java.lang.management.ManagementFactory;
+import jdk.jfr.*;
+
+// WatorMetrics
+// Where the time of each chronon goes.  Give one to a world with
+// SetMetrics, and the world times each phase of its chronons, and counts
+// the turns taken and the sleepers woken.  WatorClock times the frames it
+// draws too.  With no metrics (the default) all this costs a test for
+// null here and there, and nothing else.
+//
+// The phases are these.  A WatorEngine times each call of Reproduce and
+// ProcessTic, which is two readings of the clock for each; the rest of the
+// time the animals spend on their turns is MOVE.  A WatorGrid only times
+// the phases of the whole chronon, so all of its turns are MOVE (and in
+// synchronous mode, so are its mutations).
+//
+// The numbers of a chronon are gathered by the world's thread as it goes,
+// with no locking, and published when it ends.  Anybody may read the
+// published numbers at any time, from any thread; Copy gets all of them
+// at once, consistently.  Each chronon, and each frame, is also a JDK
+// Flight Recorder event, wator.Chronon or wator.Frame, which costs very
+// little unless a recording that wants them is running.
+//
+// The bytes allocated are those allocated by the world's thread, so they
+// miss whatever the worker threads of a parallel WatorGrid allocate.
+
+public class WatorMetrics
+{
+    // The phases.
+    public static final int ALARMS    = 0; // waking sleepers whose alarms go off
+    public static final int SORT      = 1; // sorting the list of animals
+    public static final int MOVE      = 2; // the rest of the animals' turns
+    public static final int REPRODUCE = 3; // making babies
+    public static final int PROCESS   = 4; // starving, and coral aging and stinging
+    public static final int MUTATE    = 5; // MutateAlgae and MutateFish
+    public static final int RENDER    = 6; // drawing a frame
+    public static final int PHASES    = 7;
+
+    private static final String NAMES[] = {"alarms", "sort", "move", "reproduce",
+                                           "process", "mutate", "render"};
+
+    // The chronon going on now.  Only the world's thread touches these.
+    private long itsNanos[] = new long[PHASES];
+    private long itsTurns;
+    private long itsWakes;
+    private long itsStart;
+    private long itsAllocatedAtStart;
+    private long itsFrameStart;
+    private ChrononEvent itsChrononEvent = null;
+    private FrameEvent itsFrameEvent = null;
+
+    // Published when a chronon, or a frame, ends.
+    private long itsTick = 0;
+    private long itsChronons = 0;
+    private long itsFrames = 0;
+    private long itsLastNanos[] = new long[PHASES];
+    private long itsTotalNanos[] = new long[PHASES];
+    private long itsLastChrononNanos = 0;
+    private long itsTotalChrononNanos = 0;
+    private long itsLastTurns = 0;
+    private long itsTotalTurns = 0;
+    private long itsLastWakes = 0;
+    private long itsTotalWakes = 0;
+    private long itsLastAllocated = 0;
+    private long itsTotalAllocated = 0;
+
+    //---------------------------
+    // Reading the numbers.  "Last" is the last chronon (or, for RENDER,
+    // the last frame); "Total" is every one since the metrics were made,
+    // or Reset.
+    //---------------------------
+
+    public synchronized long GetTick()     {return itsTick;}
+    public synchronized long GetChronons() {return itsChronons;}
+    public synchronized long GetFrames()   {return itsFrames;}
+
+    public synchronized long GetLastNanos(int phase)  {return itsLastNanos[phase];}
+    public synchronized long GetTotalNanos(int phase) {return itsTotalNanos[phase];}
+    public synchronized long GetLastChrononNanos()    {return itsLastChrononNanos;}
+    public synchronized long GetTotalChrononNanos()   {return itsTotalChrononNanos;}
+    public synchronized long GetLastTurns()           {return itsLastTurns;}
+    public synchronized long GetTotalTurns()          {return itsTotalTurns;}
+    public synchronized long GetLastWakes()           {return itsLastWakes;}
+    public synchronized long GetTotalWakes()          {return itsTotalWakes;}
+    public synchronized long GetLastAllocatedBytes()  {return itsLastAllocated;}
+    public synchronized long GetTotalAllocatedBytes() {return itsTotalAllocated;}
+
+    public static String NameOf(int phase) {return NAMES[phase];}
+
+    // All the published numbers, as they are now.
+    public synchronized WatorMetrics Copy()
+    {
+        WatorMetrics m = new WatorMetrics();
+        m.itsTick = itsTick;
+        m.itsChronons = itsChronons;
+        m.itsFrames = itsFrames;
+        m.itsLastNanos = itsLastNanos.clone();
+        m.itsTotalNanos = itsTotalNanos.clone();
+        m.itsLastChrononNanos = itsLastChrononNanos;
+        m.itsTotalChrononNanos = itsTotalChrononNanos;
+        m.itsLastTurns = itsLastTurns;
+        m.itsTotalTurns = itsTotalTurns;
+        m.itsLastWakes = itsLastWakes;
+        m.itsTotalWakes = itsTotalWakes;
+        m.itsLastAllocated = itsLastAllocated;
+        m.itsTotalAllocated = itsTotalAllocated;
+        return m;
+    }
+
+    // Forget the totals, and start counting again.
+    public synchronized void Reset()
+    {
+        itsChronons = 0;
+        itsFrames = 0;
+        java.util.Arrays.fill(itsTotalNanos, 0);
+        itsTotalChrononNanos = 0;
+        itsTotalTurns = 0;
+        itsTotalWakes = 0;
+        itsTotalAllocated = 0;
+    }
+
+    // The totals, a line for each phase, with the mean per chronon.
+    public synchronized String Report()
+    {
+        StringBuilder b = new StringBuilder();
+        long chronons = Math.max(itsChronons, 1);
+        b.append(String.format("%d chronons, %.3f ms each, %d turns, %d wakes, %d bytes each%n",
+                               itsChronons, itsTotalChrononNanos / 1e6 / chronons,
+                               itsTotalTurns / chronons, itsTotalWakes / chronons,
+                               itsTotalAllocated / chronons));
+        for (int p=0; p<PHASES; p++)
+        {
+            long count = p == RENDER ? Math.max(itsFrames, 1) : chronons;
+            b.append(String.format("  %-10s %10.1f ms %10.3f ms each%n", NAMES[p],
+                                   itsTotalNanos[p] / 1e6, itsTotalNanos[p] / 1e6 / count));
+        }
+        return b.toString();
+    }
+
+    //---------------------------
+    // Gathering the numbers.  The worlds time a phase like this:
+    //
+    //     long start = WatorMetrics.Start(m);
+    //     ...
+    //     WatorMetrics.Took(m, phase, start);
+    //
+    // which, when m is null, doesn't even read the clock.
+    //---------------------------
+
+    static long Start(WatorMetrics m)
+    {
+        return m == null ? 0 : System.nanoTime();
+    }
+
+    static void Took(WatorMetrics m, int phase, long start)
+    {
+        if (m != null)
+            m.itsNanos[phase] += System.nanoTime() - start;
+    }
+
+    // The turns, timed as a whole.  Whatever of that time was not spent
+    // in REPRODUCE or PROCESS is MOVE.
+    void Turns(long start, long turns)
+    {
+        itsNanos[MOVE] += System.nanoTime() - start;
+        itsTurns += turns;
+    }
+
+    void Woke()
+    {
+        itsWakes++;
+    }
+
+    void ChrononStarted()
+    {
+        itsChrononEvent = new ChrononEvent();
+        itsChrononEvent.begin();
+        itsAllocatedAtStart = Allocated();
+        itsStart = System.nanoTime();
+    }
+
+    void ChrononEnded(long tick)
+    {
+        long elapsed = System.nanoTime() - itsStart;
+        long allocated = Allocated() - itsAllocatedAtStart;
+        itsNanos[MOVE] = Math.max(0, itsNanos[MOVE] - itsNanos[REPRODUCE] - itsNanos[PROCESS]);
+
+        synchronized (this)
+        {
+            itsTick = tick;
+            itsChronons++;
+            for (int p=0; p<PHASES; p++)
+                if (p != RENDER)
+                {
+                    itsLastNanos[p] = itsNanos[p];
+                    itsTotalNanos[p] += itsNanos[p];
+                }
+            itsLastChrononNanos = elapsed;
+            itsTotalChrononNanos += elapsed;
+            itsLastTurns = itsTurns;
+            itsTotalTurns += itsTurns;
+            itsLastWakes = itsWakes;
+            itsTotalWakes += itsWakes;
+            itsLastAllocated = allocated;
+            itsTotalAllocated += allocated;
+        }
+
+        ChrononEvent e = itsChrononEvent;
+        e.end();
+        if (e.shouldCommit())
+        {
+            e.tick = tick;
+            e.turns = itsTurns;
+            e.wakes = itsWakes;
+            e.allocated = allocated;
+            e.alarms = itsNanos[ALARMS];
+            e.sort = itsNanos[SORT];
+            e.move = itsNanos[MOVE];
+            e.reproduce = itsNanos[REPRODUCE];
+            e.process = itsNanos[PROCESS];
+            e.mutate = itsNanos[MUTATE];
+            e.commit();
+        }
+        itsChrononEvent = null;
+
+        java.util.Arrays.fill(itsNanos, 0);
+        itsTurns = 0;
+        itsWakes = 0;
+    }
+
+    void FrameStarted()
+    {
+        itsFrameEvent = new FrameEvent();
+        itsFrameEvent.begin();
+        itsFrameStart = System.nanoTime();
+    }
+
+    void FrameEnded()
+    {
+        long elapsed = System.nanoTime() - itsFrameStart;
+        synchronized (this)
+        {
+            itsFrames++;
+            itsLastNanos[RENDER] = elapsed;
+            itsTotalNanos[RENDER] += elapsed;
+        }
+        itsFrameEvent.tick = itsTick;
+        itsFrameEvent.commit();
+        itsFrameEvent = null;
+    }
+
+    // The bytes this thread has allocated, if the JVM will say; otherwise
+    // zero.
+    private static final java.lang.management.ThreadMXBean THREADS =
+        ManagementFactory.getThreadMXBean();
+
+    private static long Allocated()
+    {
+        if (THREADS instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean)THREADS)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+
+    //---------------------------
+    // Flight Recorder events.
+    //---------------------------
+
+    @Name("wator.Chronon")
+    @Label("Chronon")
+    @Category("Wator")
+    @Description("One turn of a wator world, and where its time went")
+    static class ChrononEvent extends Event
+    {
+        @Label("Tick") long tick;
+        @Label("Turns") long turns;
+        @Label("Wakes") long wakes;
+        @Label("Allocated") @DataAmount long allocated;
+        @Label("Alarms") @Timespan long alarms;
+        @Label("Sort") @Timespan long sort;
+        @Label("Move") @Timespan long move;
+        @Label("Reproduce") @Timespan long reproduce;
+        @Label("Process") @Timespan long process;
+        @Label("Mutate") @Timespan long mutate;
+    }
+
+    @Name("wator.Frame")
+    @Label("Frame")
+    @Category("Wator")
+    @Description("Drawing a frame of a wator world")
+    static class FrameEvent extends Event
+    {
+        @Label("Tick") long tick;
+    }
+}
@@ -0,0 +1,23 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: split out of Wator.java so that the engine can run headless.
+// Modified: moved into the package wator.
+
+package wator;
+
+// WatorObserver
+// Anything that wants to watch the wator world change -- the applet, for
+// instance -- implements this interface and registers itself with the
+// engine.  The engine does not care whether anyone is watching.
+
+public interface WatorObserver
+{
+    public void CellChanged(int x, int y, int color);
+        // The cell at x,y has changed.  It is now drawn in the
+        // given color, which is packed as 0xRRGGBB.
+    public void ChrononEnded(long tick);
+        // A whole turn of the world has been completed.
+}
@@ -0,0 +1,678 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to run worlds bigger than the Java heap.
+// Modified: can keep its cells in chunks, and pass by the empty ones.
+// Modified: a coral that dies stings no one, as in WatorGrid.
+// Modified: shares WatorGrid's rules, in GridRules.
+// Modified: a few animals are placed without walking the whole ocean.
+
+package wator;
+
+import java.io.IOException;
+
+// WatorOcean
+// The same world as a sequential WatorGrid, with the same rules (they are
+// GridRules', for both), drawing the same random numbers in the same
+// order; but its cells are kept in a CellStore (a GridStore, or a
+// ChunkStore when sparse).  A WatorGrid keeps 21 bytes a cell in arrays
+// on the heap, and an array can't have more than two billion entries, so
+// a grid can't be much bigger than 46000 cells on a side, and a big one
+// needs a heap of gigabytes that the collector must walk.  An ocean's
+// cells are numbered with longs, and take 16 bytes each; in a GridStore,
+// none of them are on the heap.  A 65536x65536 ocean is 64 gigabytes;
+// give it a file and it is mapped, and the operating system keeps in
+// memory only as much of it as it can.  The heap it needs is a few
+// megabytes, whatever its size.
+//
+// An ocean steps sequentially; there are no tiles, claims or synchronous
+// mode.  Events can be told only while the cells can be numbered with
+// ints, since that is what WatorEvents is given.
+//
+// A Sparse ocean keeps its cells in a ChunkStore instead, on the heap,
+// which gives memory only to the chunks of 64x64 cells that have animals
+// in them.  A world that is mostly algae takes little memory, however big
+// it is, and the ocean passes by its empty chunks, and its empty rows of
+// chunks, as it steps, counts and saves; a WatorRaster does the same as it
+// redraws.  Passing them by changes nothing: an empty chunk has nobody in
+// it to take a turn.
+//
+// Given the same snapshot, an ocean and a sequential WatorGrid carry on
+// exactly the same, sparse or not.  An ocean writes its snapshots in the
+// same layout as a grid, as kind OCEAN (or SPARSE), and WatorSnapshot.Load
+// makes an ocean of them again, in direct memory (or in chunks).
+
+public class WatorOcean extends GridRules implements WatorWorld
+{
+    // The starting animals; see Placement, which does the same for worlds
+    // that fit into an int.
+    private long itsStartFish = 0;
+    private long itsStartSharks = 0;
+    private double itsFishDensity = -1;
+    private double itsSharkDensity = -1;
+    private WatorPattern itsPattern = WatorPattern.EVERYWHERE;
+
+    private long itsCells;
+    private CellStore itsStore;
+    private long itsSeed;
+    private WatorObserver itsObserver = null;
+    private WatorPopulationListener itsPopulationListener = null;
+    private WatorMetrics itsMetrics = null;
+
+    // An ocean in direct memory.  There must be at least that much
+    // -XX:MaxDirectMemorySize.
+    public WatorOcean(int width, int height)
+    {
+        this(width, height, new GridStore(width, height));
+    }
+
+    // An ocean kept in the named file, which is replaced.
+    public WatorOcean(int width, int height, String fileName) throws IOException
+    {
+        this(width, height, new GridStore(width, height, fileName));
+    }
+
+    // An ocean kept in chunks on the heap, only where it isn't empty.
+    public static WatorOcean Sparse(int width, int height)
+    {
+        return new WatorOcean(width, height, new ChunkStore(width, height));
+    }
+
+    private WatorOcean(int width, int height, CellStore store)
+    {
+        super(width, height);
+        itsCells = (long)width * height;
+        itsStore = store;
+        itsPopulation[WatorGrid.ALGAE] = itsCells;
+        SetSeed(WatorRandom.NewSeed());
+    }
+
+    // Let go of the cells.  A file they were kept in stays as it is, but
+    // the ocean can't be used any more.
+    public void Close() throws IOException
+    {
+        itsStore.Close();
+    }
+
+    public void SetSeed(long seed)
+    {
+        itsSeed = seed;
+        rand = new WatorRandom(seed);
+    }
+
+    public long GetSeed() {return itsSeed;}
+
+    public void SetStartPopulations(int fish, int sharks)
+    {
+        itsStartFish = fish;
+        itsStartSharks = sharks;
+        itsFishDensity = itsSharkDensity = -1;
+    }
+
+    public void SetStartDensities(double fish, double sharks)
+    {
+        itsFishDensity = fish;
+        itsSharkDensity = sharks;
+    }
+
+    public void SetStartPattern(WatorPattern p)
+    {
+        itsPattern = p;
+    }
+
+    public int  GetWidth()  {return itsWidth;}
+    public int  GetHeight() {return itsHeight;}
+    public long GetTick()   {return itsTick;}
+
+    public void SetObserver(WatorObserver o)
+    {
+        itsObserver = o;
+    }
+
+    public void SetEvents(WatorEvents e)
+    {
+        if (e != null && itsCells > Integer.MAX_VALUE)
+            throw new IllegalStateException("events need an ocean of no more than " +
+                                            Integer.MAX_VALUE + " cells");
+        itsEvents = e;
+    }
+
+    public void SetPopulationListener(WatorPopulationListener l)
+    {
+        itsPopulationListener = l;
+    }
+
+    public long GetPopulation(byte species)
+    {
+        return itsPopulation[species];
+    }
+
+    public void SetMetrics(WatorMetrics m)
+    {
+        itsMetrics = m;
+    }
+
+    public WatorMetrics GetMetrics() {return itsMetrics;}
+
+    // Only the animals are counted; the rest is algae.
+    private void CountPopulation()
+    {
+        java.util.Arrays.fill(itsPopulation, 0);
+        CellStore g = itsStore;
+        int chunk = g.GetChunkSize();
+        for (int y=0; y<itsHeight; y++)
+        {
+            if (chunk != 0 && y % chunk == 0 && g.IsEmptyRow(y))
+            {
+                y += chunk - 1;
+                continue;
+            }
+            for (int x=0; x<itsWidth; x++)
+            {
+                if (chunk != 0 && x % chunk == 0 && g.IsEmpty(x, y))
+                {
+                    x += chunk - 1;
+                    continue;
+                }
+                itsPopulation[Species(g.Index(x, y))]++;
+            }
+        }
+        itsPopulation[WatorGrid.ALGAE] = itsCells - itsPopulation[WatorGrid.FISH] -
+                                         itsPopulation[WatorGrid.SHARK] -
+                                         itsPopulation[WatorGrid.CORAL];
+    }
+
+    // The side of the chunks the cells are kept in, or zero if they
+    // aren't; and whether the chunk that x, y is in is nothing but algae.
+    public int GetChunkSize() {return itsStore.GetChunkSize();}
+
+    public boolean IsEmptyChunk(int x, int y)
+    {
+        return itsStore.IsEmpty(Math.floorMod(x, itsWidth), Math.floorMod(y, itsHeight));
+    }
+
+    public byte GetSpecies(int x, int y)
+    {
+        return Species(WrappedIndex(x, y));
+    }
+
+    public int GetColor(int x, int y)
+    {
+        return ColorOf(WrappedIndex(x, y));
+    }
+
+    private long WrappedIndex(int x, int y)
+    {
+        return itsStore.Index(Math.floorMod(x, itsWidth), Math.floorMod(y, itsHeight));
+    }
+
+    private int ColorOf(long i)
+    {
+        return WatorGrid.ColorOf(Species(i), itsStore.GetShort(i, CellStore.STARVATION));
+    }
+
+    void CellChanged(long i)
+    {
+        if (itsObserver != null)
+            itsObserver.CellChanged(itsStore.XOf(i), itsStore.YOf(i), ColorOf(i));
+    }
+
+    // The number WatorEvents knows cell i by: WatorGrid's.
+    int EventCell(long i)
+    {
+        return itsStore.YOf(i) * itsWidth + itsStore.XOf(i);
+    }
+
+    public void Run(long chronons)
+    {
+        for (long i=0; i<chronons; i++)
+            Chronon();
+    }
+
+    // See WatorGrid.Chronon.
+    public void Chronon()
+    {
+        WatorMetrics m = itsMetrics;
+        if (m != null)
+            m.ChrononStarted();
+        itsTick++;
+        byte now = (byte)(itsTick & 1);
+
+        long animals = itsCells - itsPopulation[WatorGrid.ALGAE];
+        long start = WatorMetrics.Start(m);
+        Step(now);
+        if (m != null)
+            m.Turns(start, animals);
+
+        start = WatorMetrics.Start(m);
+        if (rand.NextFloat() > .95)
+            MutateAlgae();
+
+        if (rand.NextFloat() > .97)
+            MutateFish();
+        WatorMetrics.Took(m, WatorMetrics.MUTATE, start);
+
+        if (itsEvents != null)
+            itsEvents.ChrononEnded(itsTick);
+        if (itsObserver != null)
+            itsObserver.ChrononEnded(itsTick);
+        if (itsPopulationListener != null)
+            itsPopulationListener.Populations(itsTick,
+                                              itsPopulation[WatorGrid.ALGAE],
+                                              itsPopulation[WatorGrid.FISH],
+                                              itsPopulation[WatorGrid.SHARK],
+                                              itsPopulation[WatorGrid.CORAL]);
+        if (m != null)
+            m.ChrononEnded(itsTick);
+    }
+
+    // The rows of chunks, and the chunks of a row, that have no animals in
+    // them are passed by.  An animal can only get into one after we pass
+    // it by moving or being born, which stamps it; so it would have been
+    // passed by anyway.  A chunk that is empty as we come to its top row
+    // gives its memory back.
+    private void Step(byte now)
+    {
+        CellStore g = itsStore;
+        int chunk = g.GetChunkSize();
+        int span = chunk != 0 ? chunk : itsWidth; // cells to a piece of a row
+        for (int y=0; y<itsHeight; y++)
+        {
+            if (chunk != 0 && y % chunk == 0 && g.IsEmptyRow(y))
+            {
+                y += chunk - 1;
+                continue;
+            }
+            for (int first=0; first<itsWidth; first+=span)
+            {
+                if (chunk != 0 && g.IsEmpty(first, y))
+                {
+                    if (y % chunk == 0)
+                        g.Release(first, y);
+                    continue;
+                }
+                int limit = Math.min(itsWidth, first + span);
+                for (int x=first; x<limit; x++)
+                {
+                    long i = g.Index(x, y);
+                    byte s = g.GetByte(i, CellStore.SPECIES);
+                    if (s == WatorGrid.ALGAE || g.GetByte(i, CellStore.STAMP) == now)
+                        continue;
+                    g.PutByte(i, CellStore.STAMP, now);
+                    Tic(x, y, i, s, rand, itsPopulation);
+                }
+            }
+        }
+    }
+
+    //---------------------------
+    // The cells, for GridRules.
+    //---------------------------
+
+    long Index(int x, int y) {return itsStore.Index(x, y);}
+
+    long Neighbor(int x, int y, int dir)
+    {
+        return itsStore.Index(itsNeighborhood.NeighborX(x, dir),
+                              itsNeighborhood.NeighborY(y, dir));
+    }
+
+    byte  Species(long i)                 {return itsStore.GetByte(i, CellStore.SPECIES);}
+    void  SetSpecies(long i, byte s)      {itsStore.PutByte(i, CellStore.SPECIES, s);}
+    void  SetStamp(long i, byte s)        {itsStore.PutByte(i, CellStore.STAMP, s);}
+    short Gestation(long i)               {return itsStore.GetShort(i, CellStore.GESTATION);}
+    void  SetGestation(long i, short g)   {itsStore.PutShort(i, CellStore.GESTATION, g);}
+    short GestationTimer(long i)          {return itsStore.GetShort(i, CellStore.GESTATION_TIMER);}
+    void  SetGestationTimer(long i, short t) {itsStore.PutShort(i, CellStore.GESTATION_TIMER, t);}
+    short Starvation(long i)              {return itsStore.GetShort(i, CellStore.STARVATION);}
+    void  SetStarvation(long i, short s)  {itsStore.PutShort(i, CellStore.STARVATION, s);}
+    short StarvationTimer(long i)         {return itsStore.GetShort(i, CellStore.STARVATION_TIMER);}
+    void  SetStarvationTimer(long i, short t) {itsStore.PutShort(i, CellStore.STARVATION_TIMER, t);}
+    int   LastMealTick(long i)            {return itsStore.GetInt(i, CellStore.LAST_MEAL_TICK);}
+    void  SetLastMealTick(long i, int t)  {itsStore.PutInt(i, CellStore.LAST_MEAL_TICK, t);}
+    byte  MealCount(long i)               {return itsStore.GetByte(i, CellStore.MEAL_COUNT);}
+    void  SetMealCount(long i, byte m)    {itsStore.PutByte(i, CellStore.MEAL_COUNT, m);}
+    short LifeTime(long i)                {return itsStore.GetShort(i, CellStore.LIFETIME);}
+    void  SetLifeTime(long i, short l)    {itsStore.PutShort(i, CellStore.LIFETIME, l);}
+    float Venom(long i)                   {return itsStore.GetFloat(i, CellStore.VENOM);}
+    void  SetVenom(long i, float v)       {itsStore.PutFloat(i, CellStore.VENOM, v);}
+
+    // Copy an animal from one cell to another, leaving algae behind.
+    void Move(long from, long to)
+    {
+        itsStore.Copy(from, to);
+        itsStore.PutByte(from, CellStore.SPECIES, WatorGrid.ALGAE);
+    }
+
+    //---------------------------
+    // Snapshots.  See WatorSnapshot.
+    //---------------------------
+
+    // The fields are written a piece of a row at a time, into the same
+    // arrays, in the same order, that WatorGrid writes.  Fields that the
+    // species of a cell doesn't use are written as zero; the store shares
+    // their bytes with the fields of other species.  Algae uses none but
+    // its species.  In chunks, a piece is the width of a chunk, and the
+    // pieces of empty chunks are passed over, in the file and in the store.
+    private static final int PIECE = 1 << 16;
+
+    private static final int BYTES = 0;
+    private static final int SHORTS = 1;
+    private static final int INTS = 2;
+    private static final int FLOATS = 3;
+    private static final byte ANY = -1;
+
+    public void Save(String fileName) throws IOException
+    {
+        int kind = GetChunkSize() == 0 ? WatorSnapshot.OCEAN : WatorSnapshot.SPARSE;
+        WatorSnapshot s = WatorSnapshot.Create(fileName, kind,
+                                               itsWidth, itsHeight, itsTick,
+                                               itsSeed, rand.GetState());
+        try
+        {
+            PutField(s, CellStore.SPECIES, BYTES, ANY);
+            PutField(s, CellStore.STAMP, BYTES, ANY);
+            PutField(s, CellStore.GESTATION, SHORTS, ANY);
+            PutField(s, CellStore.GESTATION_TIMER, SHORTS, ANY);
+            PutField(s, CellStore.STARVATION, SHORTS, WatorGrid.SHARK);
+            PutField(s, CellStore.STARVATION_TIMER, SHORTS, WatorGrid.SHARK);
+            PutField(s, CellStore.LAST_MEAL_TICK, INTS, WatorGrid.SHARK);
+            PutField(s, CellStore.MEAL_COUNT, BYTES, WatorGrid.SHARK);
+            PutField(s, CellStore.LIFETIME, SHORTS, WatorGrid.CORAL);
+            PutField(s, CellStore.VENOM, FLOATS, WatorGrid.CORAL);
+        }
+        finally
+        {
+            s.Close();
+        }
+    }
+
+    // Read what Save, or WatorGrid.Save, wrote, into a new ocean of the
+    // same size.
+    void Read(WatorSnapshot s) throws IOException
+    {
+        SetSeed(s.GetSeed());
+        rand.SetState(s.GetRandomState());
+        itsTick = s.GetTick();
+        GetField(s, CellStore.SPECIES, BYTES, ANY);
+        GetField(s, CellStore.STAMP, BYTES, ANY);
+        GetField(s, CellStore.GESTATION, SHORTS, ANY);
+        GetField(s, CellStore.GESTATION_TIMER, SHORTS, ANY);
+        GetField(s, CellStore.STARVATION, SHORTS, WatorGrid.SHARK);
+        GetField(s, CellStore.STARVATION_TIMER, SHORTS, WatorGrid.SHARK);
+        GetField(s, CellStore.LAST_MEAL_TICK, INTS, WatorGrid.SHARK);
+        GetField(s, CellStore.MEAL_COUNT, BYTES, WatorGrid.SHARK);
+        GetField(s, CellStore.LIFETIME, SHORTS, WatorGrid.CORAL);
+        GetField(s, CellStore.VENOM, FLOATS, WatorGrid.CORAL);
+        CountPopulation();
+    }
+
+    // Write one field of every animal whose species is the given one (or
+    // any), and zero for the rest.
+    private void PutField(WatorSnapshot s, int field, int type, byte only)
+        throws IOException
+    {
+        CellStore g = itsStore;
+        int chunk = g.GetChunkSize();
+        int piece = chunk != 0 ? chunk : Math.min(PIECE, itsWidth);
+        int size = type == BYTES ? 1 : type == SHORTS ? 2 : 4;
+        byte bytes[] = new byte[type == BYTES ? piece : 0];
+        short shorts[] = new short[type == SHORTS ? piece : 0];
+        int ints[] = new int[type == INTS ? piece : 0];
+        float floats[] = new float[type == FLOATS ? piece : 0];
+        for (int y=0; y<itsHeight; y++)
+            for (int x=0; x<itsWidth; x+=piece)
+            {
+                int n = Math.min(piece, itsWidth - x);
+                if (chunk != 0 && g.IsEmpty(x, y))
+                {
+                    s.Pass((long)n * size);
+                    continue;
+                }
+                for (int k=0; k<n; k++)
+                {
+                    long i = g.Index(x+k, y);
+                    byte species = Species(i);
+                    boolean keep = species != WatorGrid.ALGAE && (only == ANY || species == only);
+                    if (type == BYTES)
+                        bytes[k] = keep ? g.GetByte(i, field) : 0;
+                    else if (type == SHORTS)
+                        shorts[k] = keep ? g.GetShort(i, field) : 0;
+                    else if (type == INTS)
+                        ints[k] = keep ? g.GetInt(i, field) : 0;
+                    else
+                        floats[k] = keep ? g.GetFloat(i, field) : 0;
+                }
+                if (type == BYTES)
+                    s.PutBytes(bytes, 0, n);
+                else if (type == SHORTS)
+                    s.PutShorts(shorts, 0, n);
+                else if (type == INTS)
+                    s.PutInts(ints, 0, n);
+                else
+                    s.PutFloats(floats, 0, n);
+            }
+    }
+
+    // Read one field of every cell, and keep it only for the animals whose
+    // species is the given one (or any).  The species must be read first;
+    // after that, the pieces of empty chunks are passed over.  The store is
+    // new, and all zero, so zeros needn't be put into it.
+    private void GetField(WatorSnapshot s, int field, int type, byte only)
+        throws IOException
+    {
+        CellStore g = itsStore;
+        int chunk = g.GetChunkSize();
+        int piece = chunk != 0 ? chunk : Math.min(PIECE, itsWidth);
+        int size = type == BYTES ? 1 : type == SHORTS ? 2 : 4;
+        byte bytes[] = new byte[type == BYTES ? piece : 0];
+        short shorts[] = new short[type == SHORTS ? piece : 0];
+        int ints[] = new int[type == INTS ? piece : 0];
+        float floats[] = new float[type == FLOATS ? piece : 0];
+        for (int y=0; y<itsHeight; y++)
+            for (int x=0; x<itsWidth; x+=piece)
+            {
+                int n = Math.min(piece, itsWidth - x);
+                if (chunk != 0 && field != CellStore.SPECIES && g.IsEmpty(x, y))
+                {
+                    s.Pass((long)n * size);
+                    continue;
+                }
+                if (type == BYTES)
+                    s.GetBytes(bytes, 0, n);
+                else if (type == SHORTS)
+                    s.GetShorts(shorts, 0, n);
+                else if (type == INTS)
+                    s.GetInts(ints, 0, n);
+                else
+                    s.GetFloats(floats, 0, n);
+                for (int k=0; k<n; k++)
+                {
+                    boolean zero = type == BYTES  ? bytes[k] == 0 :
+                                   type == SHORTS ? shorts[k] == 0 :
+                                   type == INTS   ? ints[k] == 0 : floats[k] == 0;
+                    if (zero)
+                        continue;
+                    long i = g.Index(x+k, y);
+                    if (field != CellStore.SPECIES)
+                    {
+                        byte species = Species(i);
+                        if (species == WatorGrid.ALGAE || (only != ANY && species != only))
+                            continue;
+                    }
+                    if (type == BYTES)
+                        g.PutByte(i, field, bytes[k]);
+                    else if (type == SHORTS)
+                        g.PutShort(i, field, shorts[k]);
+                    else if (type == INTS)
+                        g.PutInt(i, field, ints[k]);
+                    else
+                        g.PutFloat(i, field, floats[k]);
+                }
+            }
+    }
+
+    //---------------------------
+    // Populating and mutating
+    //---------------------------
+
+    // As in Placement, the cells are chosen one of two ways, straight into
+    // the store; there is no list of cells, since it wouldn't fit.  For a
+    // crowded start, selection sampling, as in Placement.Select: while the
+    // cells left fit into an int, the random numbers drawn are the same as
+    // Placement's, so an ocean and a grid populated from the same seed, in
+    // the same crowded way, start out the same.  For a few animals in a big
+    // ocean, Scatter.
+    public void Populate()
+    {
+        itsTick = 0;
+        itsStore.Clear();
+
+        boolean everywhere = itsPattern == WatorPattern.EVERYWHERE;
+        long n = itsCells;
+        if (!everywhere)
+        {
+            n = 0;
+            for (int y=0; y<itsHeight; y++)
+                for (int x=0; x<itsWidth; x++)
+                    if (itsPattern.Includes(x, y, itsWidth, itsHeight))
+                        n++;
+        }
+        long fish = itsFishDensity < 0 ? itsStartFish : Math.round(itsFishDensity * n);
+        long sharks = itsSharkDensity < 0 ? itsStartSharks : Math.round(itsSharkDensity * n);
+        fish = Math.max(0, Math.min(fish, n));
+        sharks = Math.max(0, Math.min(sharks, n - fish));
+
+        if (fish+sharks < n/64)
+        {
+            Scatter(n, fish, sharks, everywhere);
+            CountPopulation();
+            return;
+        }
+
+        long k = 0;
+        for (int y=0; y<itsHeight && fish+sharks > 0; y++)
+            for (int x=0; x<itsWidth && fish+sharks > 0; x++)
+            {
+                if (!everywhere && !itsPattern.Includes(x, y, itsWidth, itsHeight))
+                    continue;
+                long u = Draw(n - k++);
+                long i = itsStore.Index(x, y);
+                if (u < fish)
+                {
+                    NewFish(i, fishGestation);
+                    fish--;
+                }
+                else if (u < fish+sharks)
+                {
+                    NewShark(i, sharkGestation, sharkStarvation);
+                    sharks--;
+                }
+            }
+        CountPopulation();
+    }
+
+    // A random number from 0 to bound-1.
+    private long Draw(long bound)
+    {
+        return bound <= Integer.MAX_VALUE ? rand.NextInt((int)bound)
+                                          : (rand.NextLong() >>> 1) % bound;
+    }
+
+    // Walking every cell and drawing a number for each takes seconds for
+    // a big ocean, however few animals there are.  Here a SortedSample
+    // chooses the ranks of the cells the animals go in, among the n cells
+    // the pattern includes, in a few draws for each; and then each cell
+    // chosen gets a fish or a shark by selection sampling among the cells
+    // chosen.  Only a pattern makes us walk the cells, to find the ones of
+    // those ranks, and then without drawing anything.
+    private void Scatter(long n, long fish, long sharks, boolean everywhere)
+    {
+        SortedSample sample = new SortedSample(fish + sharks, n, rand);
+        int x = 0;          // the next cell to look at, with a pattern,
+        int y = 0;
+        long rank = 0;      // and the rank of the next the pattern includes.
+        for (long next = sample.Next(); next >= 0; next = sample.Next())
+        {
+            long i;
+            if (everywhere)
+                i = itsStore.Index((int)(next % itsWidth), (int)(next / itsWidth));
+            else
+            {
+                int cx;
+                int cy;
+                do
+                {
+                    cx = x;
+                    cy = y;
+                    if (++x == itsWidth)
+                    {
+                        x = 0;
+                        y++;
+                    }
+                }
+                while (!itsPattern.Includes(cx, cy, itsWidth, itsHeight) || rank++ != next);
+                i = itsStore.Index(cx, cy);
+            }
+
+            if (Draw(fish + sharks) < fish)
+            {
+                NewFish(i, fishGestation);
+                fish--;
+            }
+            else
+            {
+                NewShark(i, sharkGestation, sharkStarvation);
+                sharks--;
+            }
+        }
+    }
+
+    // Runs an ocean with no display at all, three tenths fish and three
+    // hundredths sharks unless told otherwise.  With a file, the ocean is
+    // kept in it; with "sparse" instead, it is kept in chunks.  The fish and
+    // sharks are fractions of the cells if they have a decimal point in
+    // them, and counts if they don't.
+    //   java wator.WatorOcean <width> <height> <chronons> [file|sparse [seed [fish sharks]]]
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 3 || args.length > 7 || args.length == 6)
+        {
+            System.out.println("usage: java wator.WatorOcean width height chronons " +
+                               "[file|sparse [seed [fish sharks]]]");
+            return;
+        }
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        long chronons = Long.parseLong(args[2]);
+        WatorOcean w = args.length < 4 ? new WatorOcean(width, height)
+                     : args[3].equals("sparse") ? Sparse(width, height)
+                     : new WatorOcean(width, height, args[3]);
+        if (args.length >= 5)
+            w.SetSeed(Long.parseLong(args[4]));
+        if (args.length == 7 && !args[5].contains(".") && !args[6].contains("."))
+            w.SetStartPopulations(Integer.parseInt(args[5]), Integer.parseInt(args[6]));
+        else if (args.length == 7)
+            w.SetStartDensities(Double.parseDouble(args[5]), Double.parseDouble(args[6]));
+        else
+            w.SetStartDensities(.3, .03);
+        System.out.println("seed " + w.GetSeed());
+        long start = System.currentTimeMillis();
+        w.Populate();
+        System.out.println("populated in " + (System.currentTimeMillis() - start) + " ms");
+        start = System.currentTimeMillis();
+        w.Run(chronons);
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println(chronons + " chronons in " + elapsed + " ms: " +
+                           w.GetPopulation(WatorGrid.FISH) + " fish, " +
+                           w.GetPopulation(WatorGrid.SHARK) + " sharks, " +
+                           w.GetPopulation(WatorGrid.CORAL) + " coral");
+        if (w.itsStore instanceof ChunkStore)
+            System.out.println(((ChunkStore)w.itsStore).GetMaterialized() +
+                               " chunks of " + ChunkStore.SIZE + "x" + ChunkStore.SIZE +
+                               " in memory");
+        w.Close();
+    }
+}
@@ -0,0 +1,79 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that a world can start with its animals in a shape.
+
+package wator;
+
+// WatorPattern
+// A pattern says which cells of a world may hold the starting fish and
+// sharks.  Populate scatters the animals at random among those cells, and
+// leaves the rest as algae.  The dimensions are passed along with every
+// cell so that one pattern can be used for a world of any size.
+
+public abstract class WatorPattern
+{
+    public abstract boolean Includes(int x, int y, int width, int height);
+
+    // Every cell; the way wator has always started.
+    public static final WatorPattern EVERYWHERE = new WatorPattern()
+    {
+        public boolean Includes(int x, int y, int width, int height)
+        {
+            return true;
+        }
+    };
+
+    // A disk in the middle of the world, whose radius is the given
+    // fraction of half the smaller dimension.
+    public static WatorPattern Disk(final double radius)
+    {
+        return new WatorPattern()
+        {
+            public boolean Includes(int x, int y, int width, int height)
+            {
+                double r = radius * Math.min(width, height) / 2;
+                double dx = x - width/2.0;
+                double dy = y - height/2.0;
+                return dx*dx + dy*dy <= r*r;
+            }
+        };
+    }
+
+    // Horizontal stripes, size cells high, with a gap as high in between.
+    public static WatorPattern Stripes(final int size)
+    {
+        return new WatorPattern()
+        {
+            public boolean Includes(int x, int y, int width, int height)
+            {
+                return (y / size) % 2 == 0;
+            }
+        };
+    }
+
+    // A checkerboard of size by size blocks.
+    public static WatorPattern Blocks(final int size)
+    {
+        return new WatorPattern()
+        {
+            public boolean Includes(int x, int y, int width, int height)
+            {
+                return ((x / size) + (y / size)) % 2 == 0;
+            }
+        };
+    }
+
+    // The pattern with the given name, for applet parameters and command
+    // lines: everywhere, disk, stripes or blocks.  null if there is none.
+    public static WatorPattern Named(String name)
+    {
+        if (name.equals("everywhere")) return EVERYWHERE;
+        if (name.equals("disk"))       return Disk(0.5);
+        if (name.equals("stripes"))    return Stripes(16);
+        if (name.equals("blocks"))     return Blocks(32);
+        return null;
+    }
+}
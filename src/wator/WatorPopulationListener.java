@@ -0,0 +1,20 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that the populations can be charted as the world runs.
+
+package wator;
+
+// WatorPopulationListener
+// Told how many cells hold each species at the end of every chronon.  The
+// world keeps the counts up to date as it changes, so telling them costs
+// nothing; there is no scan of the world, and nothing is allocated.  A
+// chart of fish against sharks, say, can follow the world at full speed.
+
+public interface WatorPopulationListener
+{
+    public void Populations(long tick, long algae, long fish, long sharks, long coral);
+        // The populations at the end of the given tick.
+}
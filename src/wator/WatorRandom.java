@@ -0,0 +1,116 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that a run can be repeated exactly from its seed.
+// Modified: moved into the package wator.
+
+package wator;
+
+// WatorRandom
+// All the random numbers in wator come from here.  A WatorRandom is a
+// SplitMix64 generator: its whole state is one long, which goes up by the
+// same odd constant on every draw and is then scrambled.  So it is cheap,
+// it never allocates, and its state can be saved and put back.
+//
+// It is not thread safe, and it is not meant to be.  Every thread that
+// needs random numbers gets its own stream, by Split, or by making a
+// stream from a Hash of the seed and something that names the stream (a
+// tile, a row).  Streams made that way are the same from run to run, no
+// matter which thread happens to use them.
+//
+// Hash is also useful on its own.  The synchronous mode of WatorGrid does
+// not use streams at all; it hashes the seed, the tick, the cell and what
+// the number is for.
+
+public final class WatorRandom
+{
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private long itsState;
+
+    public WatorRandom(long seed)
+    {
+        itsState = seed;
+    }
+
+    // A seed that is different every time.  Ask for it if you want a run
+    // that can't be repeated, but want to be able to say which one it was.
+    public static long NewSeed()
+    {
+        return Mix(System.nanoTime() ^ Mix(System.currentTimeMillis()));
+    }
+
+    public long GetState()           {return itsState;}
+    public void SetState(long state) {itsState = state;}
+
+    public long NextLong()
+    {
+        return Mix(itsState += GOLDEN);
+    }
+
+    // A number from 0 up to, but not including, bound.
+    public int NextInt(int bound)
+    {
+        return (int)(((NextLong() >>> 33) * bound) >>> 31);
+    }
+
+    public float NextFloat()
+    {
+        return ToFloat(NextLong());
+    }
+
+    public double NextDouble()
+    {
+        return ToDouble(NextLong());
+    }
+
+    // Normally distributed, with a mean of 0 and a deviation of 1.  This
+    // throws away the second number Box-Muller makes, so that the state
+    // is still just one long.
+    public double NextGaussian()
+    {
+        return Gaussian(NextLong(), NextLong());
+    }
+
+    // A new generator whose numbers have nothing to do with ours.
+    public WatorRandom Split()
+    {
+        return new WatorRandom(Mix(NextLong() ^ GOLDEN));
+    }
+
+    // The SplitMix64 scrambler.  Every bit of z affects every bit of the
+    // result.
+    public static long Mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // A random number that depends only on its arguments.
+    public static long Hash(long seed, long a, long b)
+    {
+        return Mix(seed + a * GOLDEN + b * 0xC2B2AE3D27D4EB4FL);
+    }
+
+    // Turn a random long into a float, or a double, from 0 up to 1.
+    public static float ToFloat(long bits)
+    {
+        return (bits >>> 40) * 0x1.0p-24f;
+    }
+
+    public static double ToDouble(long bits)
+    {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    // Turn two random longs into a normally distributed number.
+    public static double Gaussian(long a, long b)
+    {
+        double u = 1 - ToDouble(a); // never zero.
+        double v = ToDouble(b);
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+}
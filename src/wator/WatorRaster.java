@@ -0,0 +1,145 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that drawing a cell is a few array writes instead of
+// a setColor and a fillRect.
+// Modified: Blit copies only the columns that changed, too, and Redraw
+// passes by the empty chunks of a sparse WatorOcean.
+
+package wator;
+
+import java.awt.*;
+import java.awt.image.*;
+import java.util.*;
+
+// WatorRaster
+// A picture of the world, kept in a BufferedImage.  The world tells the
+// raster which cells changed, and the raster writes their colors straight
+// into the int array behind the image.  Nothing is drawn on the screen
+// until Blit, once a frame, which copies only the rows, and the columns,
+// that changed since the last Blit.  Columns are kept track of COLUMNS
+// cells at a time.
+//
+// Every cell is cellSize pixels on a side, with a one pixel gap on the
+// right and bottom that is left in the background color.  (A cellSize of
+// one has no room for a gap, so there is none.)
+//
+// CellChanged may be called from the worker threads of a parallel world.
+// Two cells never share a pixel, and a dirty row or column is only ever
+// marked, so that is safe; but Blit must not be called while a chronon is running.
+
+public class WatorRaster implements WatorObserver
+{
+    private int itsWidth;          // in cells
+    private int itsHeight;
+    private int itsCellSize;       // in pixels, including the gap
+    private int itsFill;           // the pixels of a cell that get its color
+    private BufferedImage itsImage;
+    private int itsPixels[];       // the image's own pixels, 0xRRGGBB
+    private boolean itsDirtyRows[]; // cell rows changed since the last Blit
+    private boolean itsDirtyColumns[]; // and columns, COLUMNS at a time.
+    private static final int COLUMNS = 64;
+
+    public WatorRaster(int width, int height, int cellSize, int background)
+    {
+        itsWidth = width;
+        itsHeight = height;
+        itsCellSize = cellSize;
+        itsFill = Math.max(1, cellSize-1);
+        itsImage = new BufferedImage(width*cellSize, height*cellSize,
+                                     BufferedImage.TYPE_INT_RGB);
+        itsPixels = ((DataBufferInt)itsImage.getRaster().getDataBuffer()).getData();
+        itsDirtyRows = new boolean[height];
+        itsDirtyColumns = new boolean[(width + COLUMNS - 1) / COLUMNS];
+        Arrays.fill(itsPixels, background);
+    }
+
+    public BufferedImage GetImage() {return itsImage;}
+
+    public void CellChanged(int x, int y, int color)
+    {
+        int rowPixels = itsWidth * itsCellSize;
+        int p = y*itsCellSize*rowPixels + x*itsCellSize;
+        if (itsFill == 1)
+            itsPixels[p] = color;
+        else
+            for (int dy=0; dy<itsFill; dy++, p+=rowPixels)
+                for (int dx=0; dx<itsFill; dx++)
+                    itsPixels[p+dx] = color;
+        itsDirtyRows[y] = true;
+        itsDirtyColumns[x / COLUMNS] = true;
+    }
+
+    public void ChrononEnded(long tick)
+    {
+    }
+
+    // Paint every cell of the world into the raster; for when we don't
+    // know what has changed, like after Populate.  The empty chunks of a
+    // sparse WatorOcean are painted algae without asking it about every
+    // cell.
+    public void Redraw(WatorWorld w)
+    {
+        int chunk = 0;
+        WatorOcean ocean = null;
+        if (w instanceof WatorOcean)
+        {
+            ocean = (WatorOcean)w;
+            chunk = ocean.GetChunkSize();
+        }
+        int algae = WatorGrid.ColorOf(WatorGrid.ALGAE, 0);
+        for (int y=0; y<itsHeight; y++)
+        {
+            boolean empty = false;
+            for (int x=0; x<itsWidth; x++)
+            {
+                if (chunk != 0 && x % chunk == 0)
+                    empty = ocean.IsEmptyChunk(x, y);
+                CellChanged(x, y, empty ? algae : w.GetColor(x, y));
+            }
+        }
+    }
+
+    // Copy the rows and columns that have changed onto g.  They are drawn
+    // as one rectangle, from the first of them to the last; one drawImage
+    // is cheaper than many, even if it copies a few cells that didn't
+    // change.
+    public void Blit(Graphics g)
+    {
+        int first = 0;
+        while (first < itsHeight && !itsDirtyRows[first])
+            first++;
+        if (first == itsHeight)
+            return;
+        int last = itsHeight-1;
+        while (!itsDirtyRows[last])
+            last--;
+        for (int y=first; y<=last; y++)
+            itsDirtyRows[y] = false;
+
+        int firstColumn = 0;
+        while (firstColumn < itsDirtyColumns.length-1 && !itsDirtyColumns[firstColumn])
+            firstColumn++;
+        int lastColumn = itsDirtyColumns.length-1;
+        while (lastColumn > firstColumn && !itsDirtyColumns[lastColumn])
+            lastColumn--;
+        Arrays.fill(itsDirtyColumns, false);
+
+        int left = firstColumn * COLUMNS * itsCellSize;
+        int right = Math.min(itsWidth, (lastColumn+1) * COLUMNS) * itsCellSize;
+        int top = first * itsCellSize;
+        int bottom = (last+1) * itsCellSize;
+        g.drawImage(itsImage, left, top, right, bottom,
+                              left, top, right, bottom, null);
+    }
+
+    // Copy the whole raster onto g.
+    public void BlitAll(Graphics g)
+    {
+        Arrays.fill(itsDirtyRows, false);
+        Arrays.fill(itsDirtyColumns, false);
+        g.drawImage(itsImage, 0, 0, null);
+    }
+}
@@ -0,0 +1,354 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to look back over a run recorded by WatorEventLog.
+
+package wator;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+// WatorReplay
+// Shows the world as it was at any tick of a run that WatorEventLog
+// recorded.  It starts from the last keyframe at or before the tick, and
+// applies the events of each chronon after it.  Applying an event is a
+// store or two into an array of bytes; there are no random numbers, no
+// choices, and nothing to look at but the event.  So going forward is
+// much faster than running the world again, and going back is never more
+// than a keyframe period's worth of chronons.
+//
+// What the log keeps is what can be seen: the species of every cell, and
+// the color of every shark.  That is what a replay knows.  It can't be
+// turned back into a world that carries on; that is what WatorSnapshot
+// is for.
+//
+// When the replay is opened, the whole file is skimmed once, to find the
+// keyframes.  A log that was cut off in the middle of a record (because
+// the world that wrote it crashed, say) is read up to the last whole
+// record.
+
+public class WatorReplay
+{
+    private FileChannel itsChannel;
+    private int itsWidth;
+    private int itsHeight;
+    private Neighborhood itsNeighborhood;
+
+    private byte itsCodes[];      // every cell, as WatorEventLog.CodeOf
+    private long itsTick = -1;    // the tick itsCodes shows
+    private long itsNext;         // where the record after it starts
+
+    // The keyframes, in order, and the last chronon in the file.
+    private int itsKeyframeCount = 0;
+    private long itsKeyframeTicks[] = new long[16];
+    private long itsKeyframePositions[] = new long[16];
+    private long itsLastTick;
+
+    // Reading.  A record starts with a few varints, which are read into
+    // itsHead; the rest of it is read into itsRecord.
+    private ByteBuffer itsHead = ByteBuffer.allocate(32);
+    private byte itsRecord[] = new byte[1 << 16];
+    private int itsKind;
+    private long itsRecordTick;
+    private int itsRecordLength;  // of the part after the head
+    private int itsHeadLength;
+
+    public WatorReplay(String fileName) throws IOException
+    {
+        itsChannel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try
+        {
+            if (ReadHead(0) < 10 ||
+                itsHead.order(ByteOrder.LITTLE_ENDIAN).getInt() != WatorEventLog.MAGIC)
+                throw new IOException(fileName + " is not a wator event log");
+            int version = itsHead.getInt();
+            if (version != WatorEventLog.VERSION)
+                throw new IOException(fileName + " is a version " + version +
+                                      " wator event log; only version " +
+                                      WatorEventLog.VERSION + " can be read");
+            itsWidth = (int)GetVarLong();
+            itsHeight = (int)GetVarLong();
+            itsNeighborhood = new Neighborhood(itsWidth, itsHeight);
+            itsCodes = new byte[itsWidth * itsHeight];
+            Skim(itsHead.position());
+            if (itsKeyframeCount == 0)
+                throw new IOException(fileName + " has no keyframe");
+        }
+        catch (IOException | RuntimeException e)
+        {
+            itsChannel.close();
+            throw e;
+        }
+    }
+
+    public void Close() throws IOException
+    {
+        itsChannel.close();
+    }
+
+    public int  GetWidth()     {return itsWidth;}
+    public int  GetHeight()    {return itsHeight;}
+    public long GetTick()      {return itsTick;}
+    public long GetFirstTick() {return itsKeyframeTicks[0];}
+    public long GetLastTick()  {return itsLastTick;}
+
+    public byte GetSpecies(int x, int y)
+    {
+        return WatorEventLog.SPECIES[itsCodes[itsNeighborhood.WrappedIndex(x,y)]];
+    }
+
+    public int GetColor(int x, int y)
+    {
+        return WatorEventLog.COLORS[itsCodes[itsNeighborhood.WrappedIndex(x,y)]];
+    }
+
+    // Show the world as it was at the end of the given tick.  Returns
+    // false, and changes nothing, if the log doesn't go back, or forward,
+    // that far.
+    public boolean SeekTo(long tick) throws IOException
+    {
+        if (tick < GetFirstTick() || tick > itsLastTick)
+            return false;
+
+        // The last keyframe at or before the tick.  If we are already
+        // past it, and not past the tick, it is quicker to go on.
+        int k = Arrays.binarySearch(itsKeyframeTicks, 0, itsKeyframeCount, tick);
+        if (k < 0)
+            k = -k - 2;
+        if (itsTick < itsKeyframeTicks[k] || itsTick > tick)
+        {
+            ReadHead(itsKeyframePositions[k]);
+            ReadRecord(itsKeyframePositions[k]);
+            System.arraycopy(itsRecord, 0, itsCodes, 0, itsCodes.length);
+            itsTick = itsRecordTick;
+            itsNext = itsKeyframePositions[k] + itsHeadLength + itsRecordLength;
+        }
+        while (itsTick < tick)
+            Next();
+        return true;
+    }
+
+    // Go on to the next tick.  Returns false if there isn't one.
+    public boolean Next() throws IOException
+    {
+        if (itsTick < 0)
+            return SeekTo(GetFirstTick());
+        while (itsTick < itsLastTick)
+        {
+            ReadHead(itsNext);
+            long position = itsNext;
+            itsNext += itsHeadLength + itsRecordLength;
+            if (itsKind == WatorEventLog.CHRONON)
+            {
+                ReadRecord(position);
+                Apply(itsRecordLength);
+                itsTick = itsRecordTick;
+                return true;
+            }
+            // A keyframe of the tick we are at; we know all that already.
+        }
+        return false;
+    }
+
+    //---------------------------
+    // Applying the events of a chronon.  See WatorEventLog for what they
+    // look like.
+    //---------------------------
+
+    private void Apply(int length)
+    {
+        byte codes[] = itsCodes;
+        byte r[] = itsRecord;
+        int cell = 0;
+        int p = 0;
+        while (p < length)
+        {
+            int what = r[p++] & 0xFF;
+
+            // The cell, as a zigzag varint difference from the last one.
+            long z = 0;
+            for (int shift=0; ; shift+=7)
+            {
+                byte b = r[p++];
+                z |= (long)(b & 0x7F) << shift;
+                if (b >= 0)
+                    break;
+            }
+            cell += (int)((z >>> 1) ^ -(z & 1));
+
+            int dir = what >>> 4;
+            switch (what & 0x0F)
+            {
+                case WatorEventLog.MOVED:
+                    codes[Neighbor(cell, dir)] = codes[cell];
+                    codes[cell] = WatorEventLog.ALGAE_CODE;
+                    break;
+                case WatorEventLog.FISH_BORN:
+                    codes[Neighbor(cell, dir)] = WatorEventLog.FISH_CODE;
+                    break;
+                case WatorEventLog.CORAL_BORN:
+                    codes[Neighbor(cell, dir)] = WatorEventLog.CORAL_CODE;
+                    break;
+                case WatorEventLog.SHARK_BORN:
+                case WatorEventLog.SHARK_MUTATED:
+                {
+                    long s = 0;
+                    for (int shift=0; ; shift+=7)
+                    {
+                        byte b = r[p++];
+                        s |= (long)(b & 0x7F) << shift;
+                        if (b >= 0)
+                            break;
+                    }
+                    byte code = WatorEventLog.CodeOf(WatorGrid.SHARK,
+                                                     (int)((s >>> 1) ^ -(s & 1)));
+                    if ((what & 0x0F) == WatorEventLog.SHARK_BORN)
+                        codes[Neighbor(cell, dir)] = code;
+                    else
+                        codes[cell] = code;
+                    break;
+                }
+                case WatorEventLog.STUNG:
+                    codes[cell] = WatorEventLog.CORAL_CODE;
+                    break;
+                case WatorEventLog.FISH_SPAWNED:
+                    codes[cell] = WatorEventLog.FISH_CODE;
+                    break;
+                case WatorEventLog.INFECTED:
+                    break; // it looks no different, yet.
+                default: // one of the deaths.
+                    codes[cell] = WatorEventLog.ALGAE_CODE;
+                    break;
+            }
+        }
+    }
+
+    private int Neighbor(int cell, int dir)
+    {
+        return itsNeighborhood.Neighbor(cell % itsWidth, cell / itsWidth, dir);
+    }
+
+    //---------------------------
+    // Reading the file.
+    //---------------------------
+
+    // Find the keyframes, and the last chronon, starting at the given
+    // position.
+    private void Skim(long position) throws IOException
+    {
+        long size = itsChannel.size();
+        itsLastTick = -1;
+        while (position < size)
+        {
+            ReadHead(position);
+            if (itsHeadLength == 0 ||
+                position + itsHeadLength + itsRecordLength > size)
+                break; // cut off.
+            if (itsKind == WatorEventLog.KEYFRAME)
+            {
+                if (itsKeyframeCount == itsKeyframeTicks.length)
+                {
+                    itsKeyframeTicks = Arrays.copyOf(itsKeyframeTicks, itsKeyframeCount*2);
+                    itsKeyframePositions = Arrays.copyOf(itsKeyframePositions, itsKeyframeCount*2);
+                }
+                itsKeyframeTicks[itsKeyframeCount] = itsRecordTick;
+                itsKeyframePositions[itsKeyframeCount++] = position;
+            }
+            itsLastTick = itsRecordTick;
+            position += itsHeadLength + itsRecordLength;
+        }
+    }
+
+    // Read the head of the record at the given position: its kind, its
+    // tick, and how long the rest of it is.  The file header is read the
+    // same way.  Returns how many bytes were read; itsHeadLength is left
+    // zero if the head is cut off.
+    private int ReadHead(long position) throws IOException
+    {
+        itsHead.clear();
+        int n = 0;
+        while (itsHead.hasRemaining())
+        {
+            int got = itsChannel.read(itsHead, position + n);
+            if (got < 0)
+                break;
+            n += got;
+        }
+        itsHead.flip();
+        itsHeadLength = 0;
+        if (position == 0)
+            return n;
+        try
+        {
+            itsKind = itsHead.get();
+            itsRecordTick = GetVarLong();
+            if (itsKind == WatorEventLog.KEYFRAME)
+                itsRecordLength = itsCodes.length;
+            else if (itsKind == WatorEventLog.CHRONON)
+                itsRecordLength = (int)GetVarLong();
+            else
+                throw new IOException("unknown record " + itsKind + " at " + position);
+            itsHeadLength = itsHead.position();
+        }
+        catch (BufferUnderflowException e)
+        {
+            // Cut off; itsHeadLength says so.
+        }
+        return n;
+    }
+
+    // Read the rest of the record whose head was just read.
+    private void ReadRecord(long position) throws IOException
+    {
+        if (itsRecord.length < itsRecordLength)
+            itsRecord = new byte[Math.max(itsRecordLength, itsRecord.length*2)];
+        ByteBuffer b = ByteBuffer.wrap(itsRecord, 0, itsRecordLength);
+        position += itsHeadLength;
+        while (b.hasRemaining())
+            if (itsChannel.read(b, position + b.position()) < 0)
+                throw new EOFException("record cut off at " + position);
+    }
+
+    private long GetVarLong()
+    {
+        long n = 0;
+        for (int shift=0; ; shift+=7)
+        {
+            byte b = itsHead.get();
+            n |= (long)(b & 0x7F) << shift;
+            if (b >= 0)
+                return n;
+        }
+    }
+
+    // Shows a census of a recorded world at some tick.
+    //   java wator.WatorReplay <file> <tick>
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.out.println("usage: java wator.WatorReplay file tick");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        WatorReplay r = new WatorReplay(args[0]);
+        System.out.println("ticks " + r.GetFirstTick() + " to " + r.GetLastTick());
+        if (!r.SeekTo(Long.parseLong(args[1])))
+            System.out.println("not in the log");
+        long elapsed = System.currentTimeMillis() - start;
+        int count[] = new int[4];
+        for (int y=0; y<r.GetHeight(); y++)
+            for (int x=0; x<r.GetWidth(); x++)
+                count[r.GetSpecies(x, y)]++;
+        System.out.println("tick " + r.GetTick() + " in " + elapsed + " ms: " +
+                           count[WatorGrid.FISH] + " fish, " +
+                           count[WatorGrid.SHARK] + " sharks, " +
+                           count[WatorGrid.CORAL] + " coral");
+        r.Close();
+    }
+}
@@ -0,0 +1,488 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that a world can be saved, and picked up again later.
+// Modified: can hold a WatorOcean.
+// Modified: can be read and written a band of rows at a time, by WatorBands.
+// Modified: can hold a sparse WatorOcean, and leave holes where it is empty.
+
+package wator;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+// WatorSnapshot
+// A world, saved in a file.  WatorWorld.Save writes one, and Load reads
+// it back into a new world of the same kind, which carries on exactly as
+// the saved world would have.  (A WatorGrid stepped in parallel tiles
+// carries on the same way if it is given the same tile size again, since
+// each tile's random numbers come from the seed and the tick.  One that
+// claims cells on more than one thread never does: which animal gets a
+// cell depends on the timing of the threads, so no two runs of it are
+// alike, saved or not.)
+//
+// The file is a header followed by the world.  Everything is little
+// endian, so that a file written on one machine can be read on any other.
+//
+//   int    MAGIC
+//   int    VERSION
+//   int    kind: ENGINE, GRID, OCEAN or SPARSE
+//   int    width
+//   int    height
+//   long   tick
+//   long   seed
+//   long   the state of the world's WatorRandom
+//
+// What comes after the header is up to the world; see the Save and Read
+// methods of WatorEngine and WatorGrid.  A WatorGrid writes each of its
+// arrays whole, one after the other.  A WatorOcean writes the same arrays,
+// a chunk at a time.  A sparse WatorOcean writes them too, but Passes
+// over the parts of them where it is empty, which leaves them zero; the
+// file system needn't even give them room.  Change any of it, and VERSION
+// must change too.
+//
+// The file is read and written through memory mapped buffers, so an array
+// of a hundred million cells goes into the file in one copy, with no
+// stream in the way.  A mapped buffer can't be much bigger than two
+// gigabytes, so a big file is mapped a window at a time.
+//
+// The bands of a WatorBands each read, and write, only their own rows of
+// a grid's snapshot.  They Open the file, and Seek to each piece of it.
+// Writing like that, the file is never made longer or shorter, so many
+// processes can write their own pieces of it at once.
+
+public class WatorSnapshot
+{
+    public static final int MAGIC = 0x524F5457; // "WTOR", little endian
+    public static final int VERSION = 1;
+    public static final int ENGINE = 0;
+    public static final int GRID = 1;
+    public static final int OCEAN = 2;
+    public static final int SPARSE = 3;
+    static final int HEADER = 44; // bytes
+
+    private static final int WINDOW = 1 << 26; // bytes mapped at a time
+
+    private FileChannel itsChannel;
+    private boolean isWriting;
+    private boolean isUpdating = false; // writing into a file of a fixed size
+    private long itsReserved = 0;    // bytes to keep on Close, at least
+    private long itsLength;          // of the file, when reading
+    private MappedByteBuffer itsBuffer = null;
+    private long itsBase = 0;        // where in the file itsBuffer starts
+
+    // The header.
+    private int itsKind;
+    private int itsWidth;
+    private int itsHeight;
+    private long itsTick;
+    private long itsSeed;
+    private long itsRandomState;
+
+    private WatorSnapshot(FileChannel channel, boolean writing) throws IOException
+    {
+        itsChannel = channel;
+        isWriting = writing;
+        itsLength = channel.size();
+    }
+
+    //---------------------------
+    // Saving and loading.
+    //---------------------------
+
+    // Start writing a snapshot into the named file, which is replaced if
+    // it is there already.  The world writes the rest, and then calls
+    // Close.
+    static WatorSnapshot Create(String fileName, int kind, int width, int height,
+                                long tick, long seed, long randomState)
+        throws IOException
+    {
+        FileChannel channel = FileChannel.open(Paths.get(fileName),
+                                               StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING,
+                                               StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        WatorSnapshot s = new WatorSnapshot(channel, true);
+        s.PutInt(MAGIC);
+        s.PutInt(VERSION);
+        s.PutInt(kind);
+        s.PutInt(width);
+        s.PutInt(height);
+        s.PutLong(tick);
+        s.PutLong(seed);
+        s.PutLong(randomState);
+        return s;
+    }
+
+    // Open a snapshot that is already there, and read its header.  If
+    // update is true, pieces of it may be written, but it stays the size
+    // it is.
+    static WatorSnapshot Open(String fileName, boolean update) throws IOException
+    {
+        FileChannel channel = update
+            ? FileChannel.open(Paths.get(fileName), StandardOpenOption.READ,
+                               StandardOpenOption.WRITE)
+            : FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        WatorSnapshot s = new WatorSnapshot(channel, update);
+        s.isUpdating = update;
+        try
+        {
+            if (s.itsLength < HEADER || s.GetInt() != MAGIC)
+                throw new IOException(fileName + " is not a wator snapshot");
+            int version = s.GetInt();
+            if (version != VERSION)
+                throw new IOException(fileName + " is a version " + version +
+                                      " wator snapshot; only version " +
+                                      VERSION + " can be read");
+            s.itsKind = s.GetInt();
+            s.itsWidth = s.GetInt();
+            s.itsHeight = s.GetInt();
+            s.itsTick = s.GetLong();
+            s.itsSeed = s.GetLong();
+            s.itsRandomState = s.GetLong();
+            return s;
+        }
+        catch (BufferUnderflowException e)
+        {
+            s.Close();
+            throw new IOException(fileName + " is too short", e);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            s.Close();
+            throw e;
+        }
+    }
+
+    // Make a new world out of the named snapshot.
+    public static WatorWorld Load(String fileName) throws IOException
+    {
+        WatorSnapshot s = Open(fileName, false);
+        try
+        {
+            if (s.itsKind == ENGINE)
+            {
+                WatorEngine w = new WatorEngine(s.itsWidth, s.itsHeight);
+                w.Read(s);
+                return w;
+            }
+            else if (s.itsKind == GRID)
+            {
+                WatorGrid w = new WatorGrid(s.itsWidth, s.itsHeight);
+                w.Read(s);
+                return w;
+            }
+            else if (s.itsKind == OCEAN || s.itsKind == SPARSE)
+            {
+                WatorOcean w = s.itsKind == OCEAN ? new WatorOcean(s.itsWidth, s.itsHeight)
+                                                  : WatorOcean.Sparse(s.itsWidth, s.itsHeight);
+                w.Read(s);
+                return w;
+            }
+            throw new IOException(fileName + " holds an unknown kind of world: " + s.itsKind);
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new IOException(fileName + " is too short", e);
+        }
+        finally
+        {
+            s.Close();
+        }
+    }
+
+    int  GetKind()        {return itsKind;}
+    int  GetWidth()       {return itsWidth;}
+    int  GetHeight()      {return itsHeight;}
+    long GetTick()        {return itsTick;}
+    long GetSeed()        {return itsSeed;}
+    long GetRandomState() {return itsRandomState;}
+
+    // Make the file at least the given number of bytes long when it is
+    // closed, however much has been written; zeros, where nothing has.
+    void Reserve(long length)
+    {
+        itsReserved = length;
+    }
+
+    // Finish with the file.  If it was being written, it is cut off where
+    // the writing stopped (unless it was opened to update, or more was
+    // reserved), and flushed to the disk.
+    void Close() throws IOException
+    {
+        try
+        {
+            if (isWriting && itsBuffer != null)
+                itsBuffer.force();
+            if (isWriting && !isUpdating)
+            {
+                long length = Math.max(Position(), itsReserved);
+                if (itsChannel.size() > length)
+                    itsChannel.truncate(length);
+                else if (itsChannel.size() < length)
+                    itsChannel.write(ByteBuffer.wrap(new byte[1]), length-1);
+            }
+        }
+        finally
+        {
+            itsBuffer = null;
+            itsChannel.close();
+        }
+    }
+
+    //---------------------------
+    // The window.
+    //---------------------------
+
+    private long Position()
+    {
+        return itsBuffer == null ? itsBase : itsBase + itsBuffer.position();
+    }
+
+    // Go to the given byte of the file.  If it is in the window, the
+    // window stays where it is.
+    void Seek(long position) throws IOException
+    {
+        if (itsBuffer != null &&
+            position >= itsBase && position <= itsBase + itsBuffer.limit())
+        {
+            itsBuffer.position((int)(position - itsBase));
+            return;
+        }
+        if (isWriting && itsBuffer != null)
+            itsBuffer.force();
+        itsBuffer = null;
+        itsBase = position;
+    }
+
+    // Go past the next so many bytes without putting or getting them.
+    // Written, they are left zero.
+    void Pass(long bytes) throws IOException
+    {
+        Seek(Position() + bytes);
+    }
+
+    // Make sure that at least n bytes (up to a window full) can be put or
+    // got without moving the window.  Returns how many can.
+    private int Window(long n) throws IOException
+    {
+        if (itsBuffer != null && itsBuffer.remaining() >= Math.min(n, WINDOW))
+            return itsBuffer.remaining();
+
+        long position = Position();
+        long size = WINDOW;
+        if (isUpdating)
+        {
+            if (itsBuffer != null)
+                itsBuffer.force();
+            size = Math.min(size, itsLength - position);
+            if (size < Math.min(n, WINDOW))
+                throw new BufferOverflowException();
+            itsBuffer = itsChannel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        }
+        else if (isWriting)
+        {
+            if (itsBuffer != null)
+                itsBuffer.force(); // before we lose track of it.
+            itsBuffer = itsChannel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        }
+        else
+        {
+            size = Math.min(size, itsLength - position);
+            if (size < Math.min(n, WINDOW))
+                throw new BufferUnderflowException();
+            itsBuffer = itsChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        }
+        itsBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        itsBase = position;
+        return itsBuffer.remaining();
+    }
+
+    //---------------------------
+    // Putting and getting.  The arrays are copied a window full at a time.
+    //---------------------------
+
+    void PutInt(int i) throws IOException   {Window(4); itsBuffer.putInt(i);}
+    void PutLong(long l) throws IOException {Window(8); itsBuffer.putLong(l);}
+    int  GetInt() throws IOException        {Window(4); return itsBuffer.getInt();}
+    long GetLong() throws IOException       {Window(8); return itsBuffer.getLong();}
+
+    void PutBytes(byte a[]) throws IOException
+    {
+        PutBytes(a, 0, a.length);
+    }
+
+    void PutBytes(byte a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(length-done));
+            itsBuffer.put(a, offset+done, n);
+            done += n;
+        }
+    }
+
+    void GetBytes(byte a[]) throws IOException
+    {
+        GetBytes(a, 0, a.length);
+    }
+
+    void GetBytes(byte a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(length-done));
+            itsBuffer.get(a, offset+done, n);
+            done += n;
+        }
+    }
+
+    void PutShorts(short a[]) throws IOException
+    {
+        PutShorts(a, 0, a.length);
+    }
+
+    void PutShorts(short a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(2L*(length-done)) / 2);
+            itsBuffer.asShortBuffer().put(a, offset+done, n);
+            Skip(2*n);
+            done += n;
+        }
+    }
+
+    void GetShorts(short a[]) throws IOException
+    {
+        GetShorts(a, 0, a.length);
+    }
+
+    void GetShorts(short a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(2L*(length-done)) / 2);
+            itsBuffer.asShortBuffer().get(a, offset+done, n);
+            Skip(2*n);
+            done += n;
+        }
+    }
+
+    void PutInts(int a[]) throws IOException
+    {
+        PutInts(a, 0, a.length);
+    }
+
+    void PutInts(int a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(4L*(length-done)) / 4);
+            itsBuffer.asIntBuffer().put(a, offset+done, n);
+            Skip(4*n);
+            done += n;
+        }
+    }
+
+    void GetInts(int a[]) throws IOException
+    {
+        GetInts(a, 0, a.length);
+    }
+
+    void GetInts(int a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(4L*(length-done)) / 4);
+            itsBuffer.asIntBuffer().get(a, offset+done, n);
+            Skip(4*n);
+            done += n;
+        }
+    }
+
+    void PutFloats(float a[]) throws IOException
+    {
+        PutFloats(a, 0, a.length);
+    }
+
+    void PutFloats(float a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(4L*(length-done)) / 4);
+            itsBuffer.asFloatBuffer().put(a, offset+done, n);
+            Skip(4*n);
+            done += n;
+        }
+    }
+
+    void GetFloats(float a[]) throws IOException
+    {
+        GetFloats(a, 0, a.length);
+    }
+
+    void GetFloats(float a[], int offset, int length) throws IOException
+    {
+        for (int done=0; done<length; )
+        {
+            int n = Math.min(length-done, Window(4L*(length-done)) / 4);
+            itsBuffer.asFloatBuffer().get(a, offset+done, n);
+            Skip(4*n);
+            done += n;
+        }
+    }
+
+    // The views above don't move the buffer they are made from.
+    private void Skip(int bytes)
+    {
+        itsBuffer.position(itsBuffer.position() + bytes);
+    }
+
+    // Runs a saved world some more, with no display, and saves it again.
+    //   java wator.WatorSnapshot <file> <chronons> [every [width height]]
+    // The world is saved every so many chronons, and at the end.  If the
+    // file isn't there, a new WatorGrid of the given size is made, three
+    // tenths fish and three hundredths sharks.
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2 && args.length != 3 && args.length != 5)
+        {
+            System.out.println("usage: java wator.WatorSnapshot file chronons [every [width height]]");
+            return;
+        }
+        String file = args[0];
+        long chronons = Long.parseLong(args[1]);
+        long every = args.length >= 3 ? Long.parseLong(args[2]) : chronons;
+        WatorWorld w;
+        if (args.length == 5 && !Files.exists(Paths.get(file)))
+        {
+            w = new WatorGrid(Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            w.SetStartDensities(.3, .03);
+            w.Populate();
+            System.out.println("seed " + w.GetSeed());
+        }
+        else
+        {
+            long start = System.currentTimeMillis();
+            w = Load(file);
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.println("loaded tick " + w.GetTick() + " in " + elapsed + " ms");
+        }
+
+        for (long done=0; done<chronons; )
+        {
+            long n = Math.min(Math.max(every, 1), chronons-done);
+            w.Run(n);
+            done += n;
+            long start = System.currentTimeMillis();
+            w.Save(file);
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.println("saved tick " + w.GetTick() + " in " + elapsed + " ms");
+        }
+    }
+}
@@ -0,0 +1,330 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added to run many experiments at once, with no applet.
+
+package wator;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// WatorSweep
+// Runs a headless world for every combination of the breeding parameters,
+// the starting populations and the seeds it is given, and writes how the
+// populations went in all of them into one file.  The runs have nothing
+// to do with each other, so they are done at the same time on a pool of
+// threads, one per processor unless told otherwise.  Every world steps
+// sequentially; a sweep gets its parallelism from running many worlds,
+// not from splitting any one of them up.
+//
+// Each run keeps its populations in memory, from its population listener,
+// every so many chronons.  The runs are written into the file in order,
+// each as soon as it and the runs before it are done, so the file comes
+// out the same no matter how many threads there are.  It is comma
+// separated values, with a line for every run and tick:
+//
+//   run,seed,fishGestation,sharkGestation,sharkStarvation,startFish,
+//   startSharks,tick,algae,fish,sharks,coral
+//
+// all on one line, where the starting populations are as given: counts,
+// or fractions of the cells.  Tick 0 is the world as populated.
+
+public class WatorSweep
+{
+    private String itsWorld;           // "engine", "grid" or "ocean"
+    private int itsWidth;
+    private int itsHeight;
+    private long itsChronons;
+    private long itsEvery = 1;         // chronons between lines
+    private int itsThreads = Runtime.getRuntime().availableProcessors();
+
+    // The values to try.  Every combination is a run.
+    private int itsFishGestations[] = {3};
+    private int itsSharkGestations[] = {4};
+    private int itsSharkStarvations[] = {3};
+    private double itsStartFish[] = {.3};
+    private double itsStartSharks[] = {.03};
+    private boolean areDensities = true; // or counts
+    private long itsSeeds[] = {1};
+
+    public WatorSweep(String world, int width, int height, long chronons)
+    {
+        itsWorld = world;
+        itsWidth = width;
+        itsHeight = height;
+        itsChronons = chronons;
+    }
+
+    public void SetEvery(long every)     {itsEvery = Math.max(1, every);}
+    public void SetThreads(int threads)  {itsThreads = Math.max(1, threads);}
+    public void SetSeeds(long seeds[])   {itsSeeds = seeds.clone();}
+
+    public void SetBreeding(int fishGestations[], int sharkGestations[],
+                            int sharkStarvations[])
+    {
+        itsFishGestations = fishGestations.clone();
+        itsSharkGestations = sharkGestations.clone();
+        itsSharkStarvations = sharkStarvations.clone();
+    }
+
+    // Every fish count is tried with every shark count.
+    public void SetStartPopulations(int fish[], int sharks[])
+    {
+        itsStartFish = new double[fish.length];
+        for (int i=0; i<fish.length; i++)
+            itsStartFish[i] = fish[i];
+        itsStartSharks = new double[sharks.length];
+        for (int i=0; i<sharks.length; i++)
+            itsStartSharks[i] = sharks[i];
+        areDensities = false;
+    }
+
+    public void SetStartDensities(double fish[], double sharks[])
+    {
+        itsStartFish = fish.clone();
+        itsStartSharks = sharks.clone();
+        areDensities = true;
+    }
+
+    public int GetRuns()
+    {
+        return itsFishGestations.length * itsSharkGestations.length *
+               itsSharkStarvations.length * itsStartFish.length *
+               itsStartSharks.length * itsSeeds.length;
+    }
+
+    //---------------------------
+    // Running.
+    //---------------------------
+
+    // One run: its parameters, and what happened.
+    private class Run implements Callable<Run>, WatorPopulationListener
+    {
+        int itsNumber;
+        long itsSeed;
+        int itsFishGestation;
+        int itsSharkGestation;
+        int itsSharkStarvation;
+        double itsFish;
+        double itsSharks;
+        long itsTicks[];
+        long itsPopulations[][];   // algae, fish, sharks, coral; by line
+        int itsLines = 0;
+        long itsMillis;
+
+        // The run'th combination.  The seeds vary fastest.
+        Run(int run)
+        {
+            itsNumber = run;
+            itsSeed = itsSeeds[run % itsSeeds.length];
+            run /= itsSeeds.length;
+            itsSharks = itsStartSharks[run % itsStartSharks.length];
+            run /= itsStartSharks.length;
+            itsFish = itsStartFish[run % itsStartFish.length];
+            run /= itsStartFish.length;
+            itsSharkStarvation = itsSharkStarvations[run % itsSharkStarvations.length];
+            run /= itsSharkStarvations.length;
+            itsSharkGestation = itsSharkGestations[run % itsSharkGestations.length];
+            run /= itsSharkGestations.length;
+            itsFishGestation = itsFishGestations[run];
+        }
+
+        public Run call()
+        {
+            long start = System.currentTimeMillis();
+            WatorWorld w = MakeWorld();
+            w.SetSeed(itsSeed);
+            w.SetBreeding(itsFishGestation, itsSharkGestation, itsSharkStarvation);
+            if (areDensities)
+                w.SetStartDensities(itsFish, itsSharks);
+            else
+                w.SetStartPopulations((int)itsFish, (int)itsSharks);
+            w.Populate();
+
+            int lines = (int)(itsChronons / itsEvery) + 1;
+            itsTicks = new long[lines];
+            itsPopulations = new long[lines][];
+            Populations(0, w.GetPopulation(WatorGrid.ALGAE), w.GetPopulation(WatorGrid.FISH),
+                        w.GetPopulation(WatorGrid.SHARK), w.GetPopulation(WatorGrid.CORAL));
+            w.SetPopulationListener(this);
+            w.Run(itsChronons);
+            w.SetPopulationListener(null);
+            itsMillis = System.currentTimeMillis() - start;
+            return this;
+        }
+
+        public void Populations(long tick, long algae, long fish, long sharks, long coral)
+        {
+            if (tick % itsEvery == 0)
+            {
+                itsTicks[itsLines] = tick;
+                itsPopulations[itsLines++] = new long[] {algae, fish, sharks, coral};
+            }
+        }
+
+        void Write(PrintWriter out)
+        {
+            String prefix = itsNumber + "," + itsSeed + "," + itsFishGestation + "," +
+                            itsSharkGestation + "," + itsSharkStarvation + "," +
+                            Start(itsFish) + "," + Start(itsSharks) + ",";
+            for (int l=0; l<itsLines; l++)
+            {
+                long p[] = itsPopulations[l];
+                out.println(prefix + itsTicks[l] + "," + p[0] + "," + p[1] + "," +
+                            p[2] + "," + p[3]);
+            }
+        }
+    }
+
+    private String Start(double start)
+    {
+        return areDensities ? Double.toString(start) : Long.toString((long)start);
+    }
+
+    private WatorWorld MakeWorld()
+    {
+        if (itsWorld.equals("engine"))
+            return new WatorEngine(itsWidth, itsHeight);
+        if (itsWorld.equals("ocean"))
+            return new WatorOcean(itsWidth, itsHeight);
+        return new WatorGrid(itsWidth, itsHeight);
+    }
+
+    // Do every run, and write them all into the named file, which is
+    // replaced.  Progress goes to the given stream, if it isn't null.
+    public void Run(String fileName, PrintStream progress)
+        throws IOException, InterruptedException
+    {
+        int runs = GetRuns();
+        ExecutorService pool = Executors.newFixedThreadPool(itsThreads);
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName))))
+        {
+            List<Future<Run>> futures = new ArrayList<Future<Run>>(runs);
+            for (int run=0; run<runs; run++)
+                futures.add(pool.submit(new Run(run)));
+
+            out.println("run,seed,fishGestation,sharkGestation,sharkStarvation," +
+                        "startFish,startSharks,tick,algae,fish,sharks,coral");
+            for (Future<Run> f : futures)
+            {
+                Run r;
+                try
+                {
+                    r = f.get();
+                }
+                catch (ExecutionException e)
+                {
+                    throw new IOException("a run of the sweep failed", e.getCause());
+                }
+                r.Write(out);
+                if (progress != null)
+                    progress.println("run " + (r.itsNumber+1) + " of " + runs +
+                                     " in " + r.itsMillis + " ms");
+                r.itsPopulations = null; // done with it.
+            }
+            if (out.checkError())
+                throw new IOException("couldn't write " + fileName);
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    //---------------------------
+    // The command line.
+    //---------------------------
+
+    // Runs a sweep.
+    //   java wator.WatorSweep <file> <width> <height> <chronons> [name=values ...]
+    // where the names are world (engine, grid or ocean), every, threads,
+    // fishGestation, sharkGestation, sharkStarvation, fish, sharks and
+    // seeds.  The values are separated by commas, and a range of whole
+    // numbers may be given as first-last.  If the fish or the sharks have a
+    // decimal point in them, both are fractions of the cells; otherwise
+    // both are counts.  For
+    // instance
+    //   java wator.WatorSweep out.csv 256 256 2000 sharkStarvation=2-5 seeds=1-10
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if (args.length < 4)
+        {
+            System.out.println("usage: java wator.WatorSweep file width height chronons [name=values ...]");
+            return;
+        }
+        Map<String,String> values = new HashMap<String,String>();
+        for (int a=4; a<args.length; a++)
+        {
+            int equals = args[a].indexOf('=');
+            if (equals < 0)
+            {
+                System.out.println("not a name=values: " + args[a]);
+                return;
+            }
+            values.put(args[a].substring(0, equals), args[a].substring(equals+1));
+        }
+
+        WatorSweep s = new WatorSweep(values.getOrDefault("world", "grid"),
+                                      Integer.parseInt(args[1]),
+                                      Integer.parseInt(args[2]),
+                                      Long.parseLong(args[3]));
+        if (values.containsKey("every"))
+            s.SetEvery(Long.parseLong(values.get("every")));
+        if (values.containsKey("threads"))
+            s.SetThreads(Integer.parseInt(values.get("threads")));
+        s.SetBreeding(Ints(values.getOrDefault("fishGestation", "3")),
+                      Ints(values.getOrDefault("sharkGestation", "4")),
+                      Ints(values.getOrDefault("sharkStarvation", "3")));
+        String fish = values.getOrDefault("fish", ".3");
+        String sharks = values.getOrDefault("sharks", ".03");
+        if (fish.contains(".") || sharks.contains("."))
+            s.SetStartDensities(Doubles(fish), Doubles(sharks));
+        else
+            s.SetStartPopulations(Ints(fish), Ints(sharks));
+        long seeds[] = Longs(values.getOrDefault("seeds", "1"));
+        s.SetSeeds(seeds);
+
+        System.out.println(s.GetRuns() + " runs on " + s.itsThreads + " threads");
+        long start = System.currentTimeMillis();
+        s.Run(args[0], System.out);
+        System.out.println("done in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // "1,3,5-8" is 1, 3, 5, 6, 7 and 8.
+    private static long[] Longs(String values)
+    {
+        long list[] = new long[0];
+        for (String v : values.split(","))
+        {
+            int dash = v.indexOf('-', 1);
+            long first = Long.parseLong(dash < 0 ? v : v.substring(0, dash));
+            long last = dash < 0 ? first : Long.parseLong(v.substring(dash+1));
+            int n = list.length;
+            list = Arrays.copyOf(list, n + (int)Math.max(0, last-first+1));
+            for (long i=first; i<=last; i++)
+                list[n++] = i;
+        }
+        return list;
+    }
+
+    private static int[] Ints(String values)
+    {
+        long longs[] = Longs(values);
+        int list[] = new int[longs.length];
+        for (int i=0; i<longs.length; i++)
+            list[i] = (int)longs[i];
+        return list;
+    }
+
+    private static double[] Doubles(String values)
+    {
+        String v[] = values.split(",");
+        double list[] = new double[v.length];
+        for (int i=0; i<v.length; i++)
+            list[i] = Double.parseDouble(v[i]);
+        return list;
+    }
+}
@@ -0,0 +1,72 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added so that the applet can run either world representation.
+// Modified: moved into the package wator.
+// Modified: worlds can be saved; see WatorSnapshot.
+// Modified: worlds can tell a WatorEvents what happens in them.
+// Modified: worlds count their populations as they go.
+// Modified: worlds can time their chronons; see WatorMetrics.
+// Modified: the breeding parameters can be set, for WatorSweep.
+
+package wator;
+
+import java.io.IOException;
+
+// WatorWorld
+// There is more than one way to represent the wator world.  WatorEngine
+// keeps an Animal object in every cell; WatorGrid keeps the same state in
+// flat arrays.  Both follow the same rules, and both look like this to
+// the outside.
+
+public interface WatorWorld
+{
+    public int GetWidth();
+    public int GetHeight();
+    public long GetTick();
+        // The number of chronons since the world was populated.
+    public int GetColor(int x, int y);
+        // The color of the cell at x,y packed as 0xRRGGBB.
+    public void SetObserver(WatorObserver o);
+        // There is at most one observer.  null means run headless.
+    public void SetEvents(WatorEvents e);
+        // There is at most one, too; null means nobody is listening.
+    public long GetPopulation(byte species);
+        // How many cells hold the given species, one of WatorGrid's.  The
+        // counts are kept up to date as the world changes, so this is
+        // cheap enough to call every chronon.
+    public void SetPopulationListener(WatorPopulationListener l);
+        // Told the populations at the end of every chronon.  There is at
+        // most one; null means nobody is listening.
+    public void SetMetrics(WatorMetrics m);
+    public WatorMetrics GetMetrics();
+        // Where the time of each chronon goes; null, the default, means
+        // nobody wants to know.
+    public void SetSeed(long seed);
+        // Start the random numbers over from the given seed.  The same
+        // seed, then Populate, then the same chronons, gives the same world.
+    public long GetSeed();
+    public void SetBreeding(int fishGestation, int sharkGestation, int sharkStarvation);
+        // The gestation of the fish, and the gestation and starvation of
+        // the sharks, that Populate and the mutations give the animals
+        // they make; 3, 4 and 3 unless set.  Babies take after their
+        // parents.  Snapshots don't keep these.
+    public void SetStartPopulations(int fish, int sharks);
+        // How many fish and sharks Populate puts into the world.
+    public void SetStartDensities(double fish, double sharks);
+        // Or, what fraction of the cells start with fish, and with sharks.
+        // Fractions of the cells the start pattern includes, that is.
+    public void SetStartPattern(WatorPattern p);
+        // Which cells the starting fish and sharks may be put in.
+    public void Populate();
+        // Put the world back into its start state.
+    public void Chronon();
+        // Take a single turn.
+    public void Run(long chronons);
+        // Take the given number of turns.
+    public void Save(String fileName) throws IOException;
+        // Write the world into the named file, so that WatorSnapshot.Load
+        // can carry on from here.
+}
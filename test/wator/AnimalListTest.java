@@ -0,0 +1,151 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The list keeps every animal exactly once, each knowing its place in it;
+// sorting puts them in the order of their cells, and shuffling the turns
+// gives every animal the same chance of going first.
+
+class AnimalListTest
+{
+    private static final int WIDTH = 20;
+    private static final int HEIGHT = 10;
+
+    // Every animal in the list is where it thinks it is, once.
+    private static void AssertConsistent(AnimalList list)
+    {
+        Set<Animal> seen = new HashSet<>();
+        for (int i=0; i<list.Size(); i++)
+        {
+            Animal a = list.Get(i);
+            assertEquals(i, a.itsListIndex);
+            assertTrue(seen.add(a), "an animal is in the list twice");
+        }
+    }
+
+    // Fish in the given cells, in that order, linked into the engine's list.
+    private static Animal[] Fish(WatorEngine w, int cells[])
+    {
+        Animal fish[] = new Animal[cells.length];
+        for (int k=0; k<cells.length; k++)
+            fish[k] = new Fish(w.itsNeighborhood.GetCell(cells[k] % WIDTH, cells[k] / WIDTH), 3, w);
+        return fish;
+    }
+
+    @Test
+    void AddAndRemoveKeepTheListWhole()
+    {
+        WatorEngine w = new WatorEngine(WIDTH, HEIGHT);
+        int cells[] = new int[50];
+        for (int k=0; k<cells.length; k++)
+            cells[k] = k;
+        Animal fish[] = Fish(w, cells);
+        AnimalList list = w.itsAnimals;
+        assertEquals(50, list.Size());
+        for (int k=0; k<50; k++)
+            assertSame(fish[k], list.Get(k)); // added in order, on the end.
+
+        for (int k : new int[] {0, 17, 49, 25, 3})
+        {
+            fish[k].Unlink(w);
+            assertFalse(fish[k].IsLinked());
+            AssertConsistent(list);
+        }
+        assertEquals(45, list.Size());
+        fish[17].Link(w);
+        assertSame(fish[17], list.Get(45));
+        AssertConsistent(list);
+
+        list.Clear();
+        assertEquals(0, list.Size());
+        assertFalse(fish[1].IsLinked());
+    }
+
+    @Test
+    void SortPutsTheAnimalsInTheOrderOfTheirCells()
+    {
+        WatorEngine w = new WatorEngine(WIDTH, HEIGHT);
+        int cells[] = {199, 3, 57, 120, 0, 88, 21, 140, 66, 9};
+        Fish(w, cells);
+        AnimalList list = w.itsAnimals;
+        list.Sort(HEIGHT);
+        AssertConsistent(list);
+        int last = -1;
+        for (int i=0; i<list.Size(); i++)
+        {
+            Cell c = list.Get(i).GetCell();
+            int key = c.GetX()*HEIGHT + c.GetY(); // column by column.
+            assertTrue(key > last, "out of order at " + i);
+            last = key;
+        }
+    }
+
+    @Test
+    void TurnsAreInListOrderUnlessShuffled()
+    {
+        WatorEngine w = new WatorEngine(WIDTH, HEIGHT);
+        Animal fish[] = Fish(w, new int[] {4, 8, 15, 16, 23});
+        AnimalList list = w.itsAnimals;
+
+        assertEquals(5, list.Snapshot(null));
+        for (int i=0; i<5; i++)
+            assertSame(fish[i], list.Turn(i));
+
+        // Shuffled, every animal is first about a fifth of the time, and
+        // the same seed shuffles the same way.
+        WatorRandom r = new WatorRandom(12);
+        Map<Animal, Integer> first = new HashMap<>();
+        int trials = 20000;
+        for (int t=0; t<trials; t++)
+        {
+            list.Snapshot(r);
+            Set<Animal> turns = new HashSet<>();
+            for (int i=0; i<5; i++)
+                turns.add(list.Turn(i));
+            assertEquals(5, turns.size());
+            first.merge(list.Turn(0), 1, Integer::sum);
+        }
+        for (Animal a : fish)
+            assertEquals(trials/5.0, first.get(a), trials/5.0 * .1);
+
+        list.Snapshot(new WatorRandom(3));
+        Animal once[] = new Animal[5];
+        for (int i=0; i<5; i++)
+            once[i] = list.Turn(i);
+        list.Snapshot(new WatorRandom(3));
+        for (int i=0; i<5; i++)
+            assertSame(once[i], list.Turn(i));
+    }
+
+    // However the turns are taken, the list stays whole, and every animal
+    // on it is in its cell.
+    @Test
+    void AShuffledSortedEngineKeepsItsList()
+    {
+        WatorEngine w = new WatorEngine(64, 48);
+        w.SetSeed(17);
+        w.SetStartDensities(.3, .03);
+        w.SetShuffle(true);
+        w.SetSortPeriod(7);
+        w.Populate();
+        for (int t=0; t<60; t++)
+        {
+            w.Chronon();
+            AssertConsistent(w.itsAnimals);
+            for (int i=0; i<w.itsAnimals.Size(); i++)
+            {
+                Animal a = w.itsAnimals.Get(i);
+                assertSame(a, w.GetCell(a.GetCell()));
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+import static wator.WatorAssert.*;
+
+// Populate places exactly the animals it is asked for, as counts or as
+// fractions of the cells the pattern includes, and only in those cells;
+// sparsely or crowded, whichever way it chooses them.
+
+class PlacementTest
+{
+    private static final int WIDTH = 90;
+    private static final int HEIGHT = 60;
+
+    private static long Included(WatorPattern p)
+    {
+        long n = 0;
+        for (int y=0; y<HEIGHT; y++)
+            for (int x=0; x<WIDTH; x++)
+                if (p.Includes(x, y, WIDTH, HEIGHT))
+                    n++;
+        return n;
+    }
+
+    private static void AssertInside(WatorWorld w, WatorPattern p)
+    {
+        for (int y=0; y<HEIGHT; y++)
+            for (int x=0; x<WIDTH; x++)
+                if (!p.Includes(x, y, WIDTH, HEIGHT))
+                    assertEquals(WatorGrid.ALGAE, SpeciesAt(w, x, y),
+                                 "cell " + x + "," + y + " is outside the pattern");
+    }
+
+    private static WatorWorld Start(String kind, WatorPattern p, long seed)
+    {
+        WatorWorld w = NewWorld(kind, WIDTH, HEIGHT);
+        w.SetSeed(seed);
+        w.SetStartPattern(p);
+        return w;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "ocean", "sparse"})
+    void CountsAreExact(String kind)
+    {
+        WatorPattern patterns[] = {WatorPattern.EVERYWHERE, WatorPattern.Disk(.8),
+                                   WatorPattern.Stripes(4), WatorPattern.Blocks(10)};
+        for (WatorPattern p : patterns)
+        {
+            long n = Included(p);
+            // A few (chosen by shuffling) and a crowd (by selection).
+            int counts[][] = {{7, 3}, {(int)(n/2), (int)(n/5)}};
+            for (int c[] : counts)
+            {
+                WatorWorld w = Start(kind, p, 31);
+                w.SetStartPopulations(c[0], c[1]);
+                w.Populate();
+                assertEquals(c[0], Count(w, WatorGrid.FISH));
+                assertEquals(c[1], Count(w, WatorGrid.SHARK));
+                assertEquals(c[0], w.GetPopulation(WatorGrid.FISH));
+                assertEquals(c[1], w.GetPopulation(WatorGrid.SHARK));
+                AssertInside(w, p);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "ocean", "sparse"})
+    void DensitiesAreFractionsOfThePattern(String kind)
+    {
+        WatorPattern p = WatorPattern.Disk(.6);
+        long n = Included(p);
+        WatorWorld w = Start(kind, p, 8);
+        w.SetStartDensities(.25, .05);
+        w.Populate();
+        assertEquals(Math.round(.25 * n), Count(w, WatorGrid.FISH));
+        assertEquals(Math.round(.05 * n), Count(w, WatorGrid.SHARK));
+        AssertInside(w, p);
+    }
+
+    // Ask for more than fits, and the pattern is filled, fish first.
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "ocean", "sparse"})
+    void TooManyFillThePattern(String kind)
+    {
+        WatorPattern p = WatorPattern.Blocks(10);
+        long n = Included(p);
+        WatorWorld w = Start(kind, p, 2);
+        w.SetStartPopulations((int)n - 5, 100);
+        w.Populate();
+        assertEquals(n - 5, Count(w, WatorGrid.FISH));
+        assertEquals(5, Count(w, WatorGrid.SHARK));
+        AssertInside(w, p);
+    }
+
+    // Every cell of the pattern is as likely as any other to get a fish.
+    @Test
+    void FewAnimalsAreSpreadEvenly()
+    {
+        Placement placement = new Placement();
+        placement.SetCounts(3, 0);
+        WatorRandom r = new WatorRandom(4);
+        int hits[] = new int[20 * 10];
+        int trials = 60000;
+        for (int t=0; t<trials; t++)
+        {
+            int cells[] = placement.Choose(20, 10, r);
+            Set<Integer> chosen = new HashSet<>();
+            for (int k=0; k<placement.GetFish(); k++)
+            {
+                assertTrue(chosen.add(cells[k]), "a cell chosen twice");
+                hits[cells[k]]++;
+            }
+        }
+        double expected = 3.0 * trials / hits.length;
+        for (int h : hits)
+            assertEquals(expected, h, expected * .15);
+    }
+}
@@ -0,0 +1,145 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+// An alarm goes off on its tick, once, however far off it was set; on
+// whichever wheel it started, and however many times it was moved down.
+// An alarm set again goes off only on its new tick.
+
+class TimerWheelTest
+{
+    private static Animal[] Animals(WatorEngine w, int n)
+    {
+        Animal a[] = new Animal[n];
+        for (int k=0; k<n; k++)
+            a[k] = new Fish(w.itsNeighborhood.GetCell(k % 32, k / 32), 3, w);
+        return a;
+    }
+
+    // Ring every tick up to the last, and note when each animal was due.
+    private static Map<Animal, List<Long>> RingUntil(TimerWheel wheel, long from, long last)
+    {
+        Map<Animal, List<Long>> rung = new HashMap<>();
+        for (long t=from; t<=last; t++)
+            for (int i=wheel.Ring(t)-1; i>=0; i--)
+                rung.computeIfAbsent(wheel.Due(i), k -> new ArrayList<>()).add(t);
+        return rung;
+    }
+
+    @Test
+    void AlarmsGoOffOnTheirTicks()
+    {
+        WatorEngine w = new WatorEngine(32, 32);
+        long ticks[] = {1, 2, 63, 64, 65, 127, 128, 300, 4095, 4096, 4097,
+                        262143, 262144, 262145, 1L << 24, (1L << 24) + 100};
+        Animal a[] = Animals(w, ticks.length);
+        TimerWheel wheel = new TimerWheel();
+        wheel.Clear(0);
+        for (int k=0; k<ticks.length; k++)
+            wheel.Set(ticks[k], a[k]);
+
+        Map<Animal, List<Long>> rung = RingUntil(wheel, 1, ticks[ticks.length-1] + 10);
+        for (int k=0; k<ticks.length; k++)
+            assertEquals(Arrays.asList(ticks[k]), rung.get(a[k]), "the alarm for " + ticks[k]);
+    }
+
+    // Set part way through, when the wheels are not lined up with zero.
+    @ParameterizedTest
+    @ValueSource(longs = {1, 37, 63, 64, 4000, 4096, 100000})
+    void AlarmsSetLaterGoOffOnTheirTicks(long now)
+    {
+        WatorEngine w = new WatorEngine(32, 32);
+        Animal a[] = Animals(w, 40);
+        TimerWheel wheel = new TimerWheel();
+        wheel.Clear(now);
+        WatorRandom r = new WatorRandom(now);
+        long ticks[] = new long[a.length];
+        for (int k=0; k<a.length; k++)
+        {
+            ticks[k] = now + 1 + r.NextInt(k < 20 ? 200 : 20000);
+            wheel.Set(ticks[k], a[k]);
+        }
+        Map<Animal, List<Long>> rung = RingUntil(wheel, now+1, now + 20001);
+        for (int k=0; k<a.length; k++)
+            assertEquals(Arrays.asList(ticks[k]), rung.get(a[k]));
+    }
+
+    @Test
+    void AnAlarmSetAgainGoesOffOnlyOnItsNewTick()
+    {
+        WatorEngine w = new WatorEngine(32, 32);
+        Animal a[] = Animals(w, 3);
+        TimerWheel wheel = new TimerWheel();
+        wheel.Clear(10);
+        wheel.Set(500, a[0]);
+        wheel.Set(20, a[0]);      // sooner
+        wheel.Set(30, a[1]);
+        wheel.Set(9000, a[1]);    // later
+        wheel.Set(5, a[2]);       // already past: the next tick.
+
+        Map<Animal, List<Long>> rung = RingUntil(wheel, 11, 10000);
+        assertEquals(Arrays.asList(20L), rung.get(a[0]));
+        assertEquals(Arrays.asList(9000L), rung.get(a[1]));
+        assertEquals(Arrays.asList(11L), rung.get(a[2]));
+    }
+
+    // A shark that never eats starves on the chronon after its starvation
+    // runs out, in every kind of world.
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "ocean"})
+    void AStarvingSharkDiesOnTime(String kind)
+    {
+        for (int starvation=1; starvation<=6; starvation++)
+        {
+            WatorWorld w = WatorAssert.NewWorld(kind, 64, 64);
+            w.SetSeed(1);
+            w.SetBreeding(3, 4, starvation);
+            w.SetStartPopulations(0, 1);
+            w.Populate();
+            int t = 0;
+            while (w.GetPopulation(WatorGrid.SHARK) > 0 && t < 100)
+            {
+                w.Chronon();
+                t++;
+            }
+            assertEquals(starvation + 1, t, "starvation " + starvation);
+        }
+    }
+
+    // A shark's last meal is kept in 32 bits, so long runs go on breeding
+    // sharks the same way once the tick passes 2^31 and 2^32: a world
+    // started from such a tick is the one started from nothing.
+    @ParameterizedTest
+    @ValueSource(strings = {"grid", "ocean"})
+    void SharksBreedTheSameWhenTheTickWraps(String kind)
+    {
+        for (long start : new long[] {(1L << 31) - 40, (1L << 32) - 40})
+        {
+            WatorWorld young = WatorAssert.NewWorld(kind, 64, 48);
+            WatorWorld old = WatorAssert.NewWorld(kind, 64, 48);
+            for (WatorWorld w : new WatorWorld[] {young, old})
+            {
+                w.SetSeed(5);
+                w.SetStartDensities(.3, .05);
+                w.Populate();
+            }
+            ((GridRules)old).itsTick = start; // even, as the stamps go by parity.
+            young.Run(80);
+            old.Run(80);
+            assertEquals(start + 80, old.GetTick());
+            ((GridRules)old).itsTick = young.GetTick(); // to compare the rest.
+            WatorAssert.AssertSame(young, old);
+        }
+    }
+}
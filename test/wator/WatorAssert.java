@@ -0,0 +1,66 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// WatorAssert
+// What the tests need to make and compare worlds.  Worlds are compared by
+// what can be seen of them: the color of every cell, which tells the
+// species, and the starvation of every shark.
+
+class WatorAssert
+{
+    static final byte SPECIES[] = {WatorGrid.ALGAE, WatorGrid.FISH,
+                                   WatorGrid.SHARK, WatorGrid.CORAL};
+
+    // A new world of the named kind: engine, grid, ocean or sparse.
+    static WatorWorld NewWorld(String kind, int width, int height)
+    {
+        switch (kind)
+        {
+            case "engine": return new WatorEngine(width, height);
+            case "grid":   return new WatorGrid(width, height);
+            case "ocean":  return new WatorOcean(width, height);
+            case "sparse": return WatorOcean.Sparse(width, height);
+            default: throw new IllegalArgumentException(kind);
+        }
+    }
+
+    static byte SpeciesAt(WatorWorld w, int x, int y)
+    {
+        return WatorEventLog.SPECIES[WatorEventLog.CodeOf(w.GetColor(x, y))];
+    }
+
+    // Count the cells of a species, the slow way.
+    static long Count(WatorWorld w, byte species)
+    {
+        long n = 0;
+        for (int y=0; y<w.GetHeight(); y++)
+            for (int x=0; x<w.GetWidth(); x++)
+                if (SpeciesAt(w, x, y) == species)
+                    n++;
+        return n;
+    }
+
+    static void AssertSame(WatorWorld expected, WatorWorld actual)
+    {
+        assertEquals(expected.GetWidth(), actual.GetWidth(), "width");
+        assertEquals(expected.GetHeight(), actual.GetHeight(), "height");
+        assertEquals(expected.GetTick(), actual.GetTick(), "tick");
+        for (int y=0; y<expected.GetHeight(); y++)
+            for (int x=0; x<expected.GetWidth(); x++)
+                if (expected.GetColor(x, y) != actual.GetColor(x, y))
+                    fail("cell " + x + "," + y + " at tick " + expected.GetTick() +
+                         ": " + Integer.toHexString(expected.GetColor(x, y)) + " and " +
+                         Integer.toHexString(actual.GetColor(x, y)));
+        for (byte s : SPECIES)
+            assertEquals(expected.GetPopulation(s), actual.GetPopulation(s),
+                         "population of species " + s);
+    }
+}
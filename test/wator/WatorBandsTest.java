@@ -0,0 +1,49 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import java.nio.file.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+// However many bands a synchronous grid is run in, the snapshot they end
+// with is the one a single synchronous grid saves, byte for byte.  The
+// bands are separate processes, started with the tests' class path.
+
+class WatorBandsTest
+{
+    private static final int CHRONONS = 60;
+
+    @TempDir
+    Path itsDirectory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void BandsMatchOneSynchronousGrid(int bands) throws Exception
+    {
+        String start = itsDirectory.resolve("start.snap").toString();
+        String single = itsDirectory.resolve("single.snap").toString();
+        String banded = itsDirectory.resolve("banded.snap").toString();
+
+        WatorGrid grid = new WatorGrid(90, 45);
+        grid.SetSeed(11);
+        grid.SetStartDensities(.3, .03);
+        grid.Populate();
+        grid.Run(3);
+        grid.Save(start);
+        grid.SetSynchronous(true);
+        grid.Run(CHRONONS);
+        grid.Save(single);
+
+        new WatorBands(start, banded, CHRONONS, bands).Run();
+        assertArrayEquals(Files.readAllBytes(Paths.get(single)),
+                          Files.readAllBytes(Paths.get(banded)));
+    }
+}
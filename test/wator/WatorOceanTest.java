@@ -0,0 +1,112 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static wator.WatorAssert.*;
+
+// A sequential grid, an ocean in direct memory, an ocean in a mapped file
+// and a sparse ocean all follow the same rules with the same random
+// numbers, so from the same seed they stay the same, cell for cell.  The
+// sizes are not multiples of a chunk, so the sparse ocean has chunks that
+// hang over its edges.
+
+class WatorOceanTest
+{
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 100;
+
+    @TempDir
+    Path itsDirectory;
+
+    private static void Start(WatorWorld w, long seed)
+    {
+        w.SetSeed(seed);
+        w.SetStartDensities(.3, .03);
+        w.Populate();
+    }
+
+    @Test
+    void GridOceanAndSparseMatchCellForCell() throws Exception
+    {
+        WatorGrid grid = new WatorGrid(WIDTH, HEIGHT);
+        WatorOcean ocean = new WatorOcean(WIDTH, HEIGHT);
+        WatorOcean mapped = new WatorOcean(WIDTH, HEIGHT, itsDirectory.resolve("o").toString());
+        WatorOcean sparse = WatorOcean.Sparse(WIDTH, HEIGHT);
+        WatorWorld worlds[] = {grid, ocean, mapped, sparse};
+        for (WatorWorld w : worlds)
+            Start(w, 42);
+
+        for (int round=0; round<=20; round++)
+        {
+            for (int k=1; k<worlds.length; k++)
+                AssertSame(grid, worlds[k]);
+            for (WatorWorld w : worlds)
+                w.Run(10);
+        }
+        ocean.Close();
+        mapped.Close();
+        sparse.Close();
+    }
+
+    // A few animals in a big ocean are scattered, not walked to; dense or
+    // sparse, an ocean scatters them the same.
+    @Test
+    void ScatteredStartsMatch()
+    {
+        WatorOcean ocean = new WatorOcean(300, 200);
+        WatorOcean sparse = WatorOcean.Sparse(300, 200);
+        for (WatorOcean o : new WatorOcean[] {ocean, sparse})
+        {
+            o.SetSeed(7);
+            o.SetStartPopulations(40, 8);
+            o.Populate();
+        }
+        for (int round=0; round<=10; round++)
+        {
+            AssertSame(ocean, sparse);
+            ocean.Run(10);
+            sparse.Run(10);
+        }
+    }
+
+    // Loaded from a grid's snapshot, an ocean carries on as the grid does.
+    @Test
+    void OceanCarriesOnFromAGrid() throws Exception
+    {
+        WatorGrid grid = new WatorGrid(WIDTH, HEIGHT);
+        Start(grid, 3);
+        grid.Run(25);
+        String file = itsDirectory.resolve("grid.snap").toString();
+        grid.Save(file);
+
+        for (WatorOcean o : new WatorOcean[] {new WatorOcean(WIDTH, HEIGHT),
+                                              WatorOcean.Sparse(WIDTH, HEIGHT)})
+        {
+            WatorGrid g = (WatorGrid)WatorSnapshot.Load(file);
+            WatorSnapshot s = WatorSnapshot.Open(file, false);
+            try
+            {
+                o.Read(s);
+            }
+            finally
+            {
+                s.Close();
+            }
+            for (int round=0; round<5; round++)
+            {
+                AssertSame(g, o);
+                g.Run(20);
+                o.Run(20);
+            }
+            o.Close();
+        }
+    }
+}
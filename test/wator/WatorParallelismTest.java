@@ -0,0 +1,66 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import org.junit.jupiter.api.Test;
+import static wator.WatorAssert.*;
+
+// A grid asked for more threads than there are processors steps on as
+// many as there are; on one, sequentially.  Tiles come out the same on
+// any number of threads.
+
+class WatorParallelismTest
+{
+    private static final int WIDTH = 128;
+    private static final int HEIGHT = 96;
+
+    private static WatorGrid Start(int processors)
+    {
+        WatorGrid g = new WatorGrid(WIDTH, HEIGHT);
+        g.itsProcessors = processors;
+        g.SetSeed(11);
+        g.SetStartDensities(.3, .03);
+        g.Populate();
+        return g;
+    }
+
+    @Test
+    void TooManyThreadsForOneProcessorStepSequentially()
+    {
+        WatorGrid sequential = Start(1);
+        WatorGrid tiled = Start(1);
+        tiled.SetParallelism(4, 16);
+        WatorGrid claiming = Start(1);
+        claiming.SetClaimParallelism(4);
+        for (int round=0; round<5; round++)
+        {
+            sequential.Run(10);
+            tiled.Run(10);
+            claiming.Run(10);
+            AssertSame(sequential, tiled);
+            AssertSame(sequential, claiming);
+        }
+    }
+
+    @Test
+    void TilesAreTheSameOnAnyNumberOfThreads()
+    {
+        WatorGrid two = Start(8);
+        two.SetParallelism(2, 16);
+        WatorGrid many = Start(3);
+        many.SetParallelism(16, 16);  // three, then.
+        for (int round=0; round<5; round++)
+        {
+            two.Run(10);
+            many.Run(10);
+            AssertSame(two, many);
+        }
+        two.SetParallelism(1, 16);    // let the workers go.
+        many.SetParallelism(1, 16);
+    }
+}
@@ -0,0 +1,79 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+import static wator.WatorAssert.*;
+
+// The populations a world keeps count of as it changes, and tells its
+// listener, are what counting every cell gives, every chronon, however
+// the world steps.
+
+class WatorPopulationTest
+{
+    private static final int WIDTH = 128;
+    private static final int HEIGHT = 64;
+
+    private static WatorWorld NewStepper(String how)
+    {
+        if (!how.startsWith("grid-"))
+            return NewWorld(how, WIDTH, HEIGHT);
+        WatorGrid g = new WatorGrid(WIDTH, HEIGHT);
+        g.itsProcessors = 2;    // in parallel, however many there are.
+        if (how.equals("grid-tiles"))
+            g.SetParallelism(2, 16);
+        else if (how.equals("grid-claims"))
+            g.SetClaimParallelism(2);
+        else if (how.equals("grid-sync"))
+            g.SetSynchronous(true);
+        return g;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "grid-tiles", "grid-claims", "grid-sync",
+                            "ocean", "sparse"})
+    void CountersMatchAFullScan(String how)
+    {
+        WatorWorld w = NewStepper(how);
+        w.SetSeed(13);
+        w.SetStartDensities(.3, .03);
+        w.Populate();
+
+        final long told[] = new long[5]; // the tick, then the four counts.
+        w.SetPopulationListener(new WatorPopulationListener()
+        {
+            public void Populations(long tick, long algae, long fish, long sharks, long coral)
+            {
+                told[0] = tick;
+                told[1 + WatorGrid.ALGAE] = algae;
+                told[1 + WatorGrid.FISH] = fish;
+                told[1 + WatorGrid.SHARK] = sharks;
+                told[1 + WatorGrid.CORAL] = coral;
+            }
+        });
+
+        for (byte s : SPECIES)
+            assertEquals(Count(w, s), w.GetPopulation(s), "species " + s + " at the start");
+        for (int t=1; t<=150; t++)
+        {
+            w.Chronon();
+            assertEquals(w.GetTick(), told[0]);
+            for (byte s : SPECIES)
+            {
+                long counted = Count(w, s);
+                assertEquals(counted, w.GetPopulation(s), "species " + s + " at tick " + t);
+                assertEquals(counted, told[1 + s], "species " + s + " told at tick " + t);
+            }
+        }
+
+        if (w instanceof WatorGrid)
+            ((WatorGrid)w).SetParallelism(1, 64); // let the workers go.
+    }
+}
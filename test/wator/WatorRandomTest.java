@@ -0,0 +1,94 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+import static wator.WatorAssert.*;
+
+// Every random number a world draws comes from its seed, so a run is
+// reproduced, cell for cell, by running again from the same seed.
+
+class WatorRandomTest
+{
+    private static WatorWorld Run(String kind, long seed, int chronons)
+    {
+        WatorWorld w = NewWorld(kind, 70, 60);
+        w.SetSeed(seed);
+        w.SetStartDensities(.3, .03);
+        w.Populate();
+        w.Run(chronons);
+        return w;
+    }
+
+    private static int Differences(WatorWorld a, WatorWorld b)
+    {
+        int n = 0;
+        for (int y=0; y<a.GetHeight(); y++)
+            for (int x=0; x<a.GetWidth(); x++)
+                if (a.GetColor(x, y) != b.GetColor(x, y))
+                    n++;
+        return n;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "ocean", "sparse"})
+    void ASeedReproducesARun(String kind)
+    {
+        WatorWorld first = Run(kind, 21, 80);
+        WatorWorld again = Run(kind, 21, 80);
+        assertEquals(21, again.GetSeed());
+        AssertSame(first, again);
+        assertTrue(Differences(first, Run(kind, 22, 80)) > 0, "another seed, another run");
+    }
+
+    @Test
+    void StreamsAreReproducible()
+    {
+        WatorRandom a = new WatorRandom(99);
+        WatorRandom b = new WatorRandom(99);
+        for (int i=0; i<1000; i++)
+            assertEquals(a.NextLong(), b.NextLong());
+
+        // A stream carries on from its state.
+        WatorRandom c = new WatorRandom(0);
+        c.SetState(a.GetState());
+        for (int i=0; i<1000; i++)
+            assertEquals(a.NextDouble(), c.NextDouble());
+
+        // Split streams are the same for the same parent, and differ from it.
+        WatorRandom s = a.Split();
+        WatorRandom t = c.Split();
+        long same = 0;
+        for (int i=0; i<1000; i++)
+        {
+            long u = s.NextLong();
+            assertEquals(u, t.NextLong());
+            if (u == a.NextLong())
+                same++;
+        }
+        assertTrue(same < 10);
+    }
+
+    @Test
+    void BoundsAreKept()
+    {
+        WatorRandom r = new WatorRandom(5);
+        for (int i=0; i<10000; i++)
+        {
+            int n = r.NextInt(7);
+            assertTrue(n >= 0 && n < 7);
+            float f = r.NextFloat();
+            assertTrue(f >= 0 && f < 1);
+            double d = r.NextDouble();
+            assertTrue(d >= 0 && d < 1);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import java.nio.file.Path;
+import java.util.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+// A replay of a world's event log shows, at every tick, what the world
+// showed at the end of that tick: forward, backward, and across keyframes.
+
+class WatorReplayTest
+{
+    private static final int WIDTH = 60;
+    private static final int HEIGHT = 50;
+    private static final int CHRONONS = 45;
+
+    @TempDir
+    Path itsDirectory;
+
+    // What can be seen of every cell; see WatorEventLog.CodeOf.
+    private static byte[] Codes(int width, int height, WatorWorld w, WatorReplay r)
+    {
+        byte codes[] = new byte[width * height];
+        for (int y=0; y<height; y++)
+            for (int x=0; x<width; x++)
+                codes[y*width + x] = WatorEventLog.CodeOf(w != null ? w.GetColor(x, y)
+                                                                    : r.GetColor(x, y));
+        return codes;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "ocean", "sparse"})
+    void ReplayShowsEveryTick(String kind) throws Exception
+    {
+        String file = itsDirectory.resolve("run.wlog").toString();
+        WatorWorld w = WatorAssert.NewWorld(kind, WIDTH, HEIGHT);
+        w.SetSeed(9);
+        w.SetStartDensities(.3, .03);
+        w.Populate();
+        WatorEventLog log = new WatorEventLog(file, w, 10);
+        w.SetEvents(log);
+
+        List<byte[]> seen = new ArrayList<>();
+        seen.add(Codes(WIDTH, HEIGHT, w, null));
+        for (int t=1; t<=CHRONONS; t++)
+        {
+            w.Run(1);
+            seen.add(Codes(WIDTH, HEIGHT, w, null));
+        }
+        log.Close();
+
+        WatorReplay replay = new WatorReplay(file);
+        try
+        {
+            assertEquals(0, replay.GetFirstTick());
+            assertEquals(CHRONONS, replay.GetLastTick());
+            for (long tick : new long[] {0, 1, 2, 9, 10, 11, 45, 3, 27, 20, 19, 44, 0, 33})
+            {
+                assertTrue(replay.SeekTo(tick));
+                assertEquals(tick, replay.GetTick());
+                assertArrayEquals(seen.get((int)tick), Codes(WIDTH, HEIGHT, null, replay),
+                                  "tick " + tick);
+            }
+            assertFalse(replay.SeekTo(CHRONONS + 1));
+        }
+        finally
+        {
+            replay.Close();
+        }
+    }
+}
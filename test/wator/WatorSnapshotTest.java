@@ -0,0 +1,84 @@
+// Wator
+// Copyright (C) Robert C. Martin, 1997, Copies may be freely made so long as
+// this entire notice is maintained.  Any modifications must be noted hereafter.
+// rmartin@oma.com, http://www.oma.com
+//----------------------------------
+// Modified: added for the tests.
+
+package wator;
+
+import java.nio.file.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static wator.WatorAssert.*;
+
+// A world loaded from a snapshot is the world that was saved, and carries
+// on exactly as that one does; and saved again, it saves the same bytes.
+// A grid stepped in tiles does too, when it is given its tiles again.
+
+class WatorSnapshotTest
+{
+    @TempDir
+    Path itsDirectory;
+
+    // The tiles are small, so that there are plenty of them.
+    private static void Tile(String kind, WatorWorld w)
+    {
+        if (kind.equals("tiles"))
+        {
+            ((WatorGrid)w).itsProcessors = 2; // however many there are.
+            ((WatorGrid)w).SetParallelism(2, 8);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"engine", "grid", "tiles", "ocean", "sparse"})
+    void LoadedWorldsCarryOn(String kind) throws Exception
+    {
+        String first = itsDirectory.resolve("first.snap").toString();
+        String second = itsDirectory.resolve("second.snap").toString();
+
+        WatorWorld saved = NewWorld(kind.equals("tiles") ? "grid" : kind, 80, 70);
+        Tile(kind, saved);
+        saved.SetSeed(5);
+        saved.SetStartDensities(.3, .03);
+        saved.Populate();
+        saved.Run(20);
+        saved.Save(first);
+
+        WatorWorld loaded = WatorSnapshot.Load(first);
+        assertEquals(saved.getClass(), loaded.getClass());
+        assertEquals(saved.GetSeed(), loaded.GetSeed());
+        AssertSame(saved, loaded);
+        Tile(kind, loaded);
+
+        loaded.Save(second);
+        assertArrayEquals(Files.readAllBytes(Paths.get(first)),
+                          Files.readAllBytes(Paths.get(second)));
+
+        for (int round=0; round<5; round++)
+        {
+            saved.Run(10);
+            loaded.Run(10);
+            AssertSame(saved, loaded);
+        }
+        if (kind.equals("tiles"))
+            for (WatorWorld w : new WatorWorld[] {saved, loaded})
+                ((WatorGrid)w).SetParallelism(1, 8); // let the workers go.
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"grid", "sparse"})
+    void EmptyWorldsRoundTrip(String kind) throws Exception
+    {
+        String file = itsDirectory.resolve("empty.snap").toString();
+        WatorWorld saved = NewWorld(kind, 200, 130);
+        saved.Populate();
+        saved.Save(file);
+        WatorWorld loaded = WatorSnapshot.Load(file);
+        AssertSame(saved, loaded);
+        assertEquals(200L*130, loaded.GetPopulation(WatorGrid.ALGAE));
+    }
+}